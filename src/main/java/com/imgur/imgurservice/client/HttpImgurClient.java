@@ -0,0 +1,330 @@
+package com.imgur.imgurservice.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imgur.imgurservice.exception.ImgurApiException;
+import com.imgur.imgurservice.model.Imgurmodel.ImgurResponse;
+import com.imgur.imgurservice.util.Futures;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ImgurClient} backed by the JDK HTTP client's asynchronous API.
+ * No thread is held while a request is in flight, so a couple of I/O threads can drive hundreds of
+ * concurrent calls. Request bodies are streamed straight from the image resource, and every call is
+ * timed and counted per route (upload, delete), and its rate limit headers are fed to the
+ * {@link ImgurRateLimiter} on the limiter's own executor.
+ * This is the raw transport; concurrency limits, retries and circuit breaking are applied on top of
+ * it by {@link ResilientImgurClient}.
+ */
+@Slf4j
+@Component
+public class HttpImgurClient implements ImgurClient {
+
+    static final String UPLOAD_ROUTE = "upload";
+    static final String DELETE_ROUTE = "delete";
+
+    private final HttpClient httpClient;
+    private final ImgurRateLimiter rateLimiter;
+    private final Executor rateLimitExecutor;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${imgur.uploadUrl}")
+    private String uploadUrl;
+
+    @Value("${imgur.deleteUrl}")
+    private String deleteUrl;
+
+    @Value("${imgur.clientId}")
+    private String clientId;
+
+    /**
+     * Maximum time to wait for the response headers.
+     */
+    @Value("${imgur.http.response-timeout-ms:10000}")
+    private long responseTimeoutMs;
+
+    /**
+     * Maximum time for the whole exchange, including reading the response body.
+     */
+    @Value("${imgur.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    /**
+     * Slowest upload throughput tolerated while sending an image; sets how long the body may take to send.
+     */
+    @Value("${imgur.http.upload-min-bytes-per-second:65536}")
+    private long uploadMinBytesPerSecond;
+
+    /**
+     * Longest an image body may take to send, and the budget used when its size is unknown.
+     */
+    @Value("${imgur.http.upload-max-send-ms:300000}")
+    private long uploadMaxSendMs;
+
+    public HttpImgurClient(@Qualifier("imgurHttpClient") HttpClient httpClient, ImgurRateLimiter rateLimiter,
+                           @Qualifier("imgurRateLimitExecutor") Executor rateLimitExecutor,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.httpClient = httpClient;
+        this.rateLimiter = rateLimiter;
+        this.rateLimitExecutor = rateLimitExecutor;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (String route : new String[]{UPLOAD_ROUTE, DELETE_ROUTE}) {
+            AtomicInteger active = new AtomicInteger();
+            inFlight.put(route, active);
+            Gauge.builder("imgur.client.in.flight", active, AtomicInteger::get)
+                    .description("Imgur requests currently in flight")
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ImgurResponse> uploadAsync(Resource image) {
+        HttpRequest request;
+        long sendBudgetMs;
+        try {
+            String boundary = "imgur-" + UUID.randomUUID();
+            HttpRequest.BodyPublisher body = multipartBody(boundary, image);
+            sendBudgetMs = uploadSendBudgetMs(body.contentLength());
+            // The request timeout runs until the response headers arrive, so it must also cover sending the body
+            request = HttpRequest.newBuilder(URI.create(uploadUrl))
+                    .timeout(Duration.ofMillis(sendBudgetMs + responseTimeoutMs))
+                    .header(HttpHeaders.AUTHORIZATION, "Client-ID " + clientId)
+                    .header(HttpHeaders.CONTENT_TYPE, "multipart/form-data; boundary=" + boundary)
+                    .POST(body)
+                    .build();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return send(UPLOAD_ROUTE, request, sendBudgetMs + readTimeoutMs).thenApply(this::readUploadResponse);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String deleteHash) {
+        // Ensure the base URL ends with a slash
+        String url = deleteUrl.endsWith("/") ? deleteUrl : deleteUrl + "/";
+        url += deleteHash; // Concatenate the delete hash
+
+        log.info("Sending DELETE request to Imgur: {}", url);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(responseTimeoutMs))
+                .header(HttpHeaders.AUTHORIZATION, "Client-ID " + clientId)
+                .DELETE()
+                .build();
+
+        return send(DELETE_ROUTE, request, readTimeoutMs).thenAccept(response -> {
+            if (response.statusCode() != 200) {
+                log.error("Imgur DELETE request failed with status {}: {}", response.statusCode(),
+                        new String(response.body(), StandardCharsets.UTF_8));
+                throw new ImgurApiException("Imgur DELETE request failed: HTTP " + response.statusCode(),
+                        response.statusCode(), retryAfterMs(response));
+            }
+            log.info("Image deleted from Imgur: {}", deleteHash);
+        });
+    }
+
+    @Override
+    public ImgurResponse upload(Resource image) {
+        return await(uploadAsync(image));
+    }
+
+    @Override
+    public void delete(String deleteHash) {
+        await(deleteAsync(deleteHash));
+    }
+
+    private ImgurResponse readUploadResponse(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new ImgurApiException("Failed to upload image to Imgur: HTTP " + response.statusCode(),
+                    response.statusCode(), retryAfterMs(response));
+        }
+        try {
+            ImgurResponse body = objectMapper.readerFor(ImgurResponse.class)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(response.body());
+            if (body == null || body.getData() == null) {
+                throw new ImgurApiException("Failed to upload image to Imgur: empty response", response.statusCode());
+            }
+            return body;
+        } catch (IOException e) {
+            throw new ImgurApiException("Unreadable Imgur upload response: " + e.getMessage(), response.statusCode());
+        }
+    }
+
+    /**
+     * Reads the Retry-After header, which Imgur sends either as a number of seconds or as an HTTP date.
+     *
+     * @return the requested delay in milliseconds, or null if the header is absent or unreadable
+     */
+    static Long retryAfterMs(HttpResponse<?> response) {
+        String value = response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return Math.max(0, Duration.between(Instant.now(), at).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Time allowed for sending an upload body of the given size at the slowest tolerated throughput.
+     *
+     * @param contentLength the body size in bytes, or a negative value if unknown
+     * @return the budget in milliseconds, capped at the configured maximum
+     */
+    long uploadSendBudgetMs(long contentLength) {
+        if (contentLength < 0 || uploadMinBytesPerSecond <= 0) {
+            return uploadMaxSendMs;
+        }
+        return Math.min(uploadMaxSendMs, contentLength * 1000 / uploadMinBytesPerSecond);
+    }
+
+    /**
+     * Sends a request, recording per-route metrics and translating transport failures into
+     * {@link ImgurApiException}.
+     *
+     * @param timeoutMs the time allowed for the whole exchange
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(String route, HttpRequest request, long timeoutMs) {
+        AtomicInteger active = inFlight.get(route);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        active.incrementAndGet();
+
+        CompletableFuture<HttpResponse<byte[]>> call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        // Time out a copy so the original can still be cancelled, which aborts the exchange
+        return call.copy()
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .handle((response, error) -> {
+                    active.decrementAndGet();
+                    String status = response != null ? String.valueOf(response.statusCode()) : "IO_ERROR";
+                    Throwable cause = error != null ? Futures.unwrap(error) : null;
+                    if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+                        call.cancel(true);
+                        status = "TIMEOUT";
+                    }
+                    sample.stop(Timer.builder("imgur.client.requests")
+                            .description("Imgur API calls")
+                            .tag("route", route)
+                            .tag("status", status)
+                            .register(meterRegistry));
+                    if (response != null) {
+                        observeRateLimit(response);
+                    }
+                    if (cause != null) {
+                        String reason = "TIMEOUT".equals(status) ? "timed out" : "failed: " + cause.getMessage();
+                        throw new CompletionException(new ImgurApiException("Imgur " + route + " request " + reason, 0));
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * Feeds the response's rate limit headers to the limiter on its own executor, so this HTTP callback
+     * thread never waits on Redis. If that executor is saturated the update is dropped; the next response
+     * carries fresher figures anyway.
+     */
+    private void observeRateLimit(HttpResponse<?> response) {
+        try {
+            rateLimitExecutor.execute(() -> rateLimiter.observe(response.headers()));
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipped Imgur rate limit update, limiter executor is saturated");
+        }
+    }
+
+    /**
+     * Blocks on a future, rethrowing its failure as the original runtime exception.
+     */
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ImgurApiException("Imgur request failed: " + cause.getMessage(), 0);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ImgurApiException("Interrupted during Imgur request", 0);
+        }
+    }
+
+    /**
+     * Builds a multipart/form-data body with a single "image" part whose content is streamed
+     * from the resource rather than copied into memory.
+     */
+    private HttpRequest.BodyPublisher multipartBody(String boundary, Resource image) {
+        String filename = image.getFilename() != null ? image.getFilename().replace("\"", "") : "image";
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        return HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+                imageBody(image),
+                HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8));
+    }
+
+    private HttpRequest.BodyPublisher imageBody(Resource image) {
+        try {
+            if (image.isFile()) {
+                return HttpRequest.BodyPublishers.ofFile(image.getFile().toPath());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read image for upload", e);
+        }
+        return HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return image.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read image for upload", e);
+            }
+        });
+    }
+}
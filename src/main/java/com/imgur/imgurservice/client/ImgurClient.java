@@ -0,0 +1,44 @@
+package com.imgur.imgurservice.client;
+
+import com.imgur.imgurservice.model.Imgurmodel.ImgurResponse;
+import org.springframework.core.io.Resource;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client for the Imgur image API.
+ * Kept behind an interface so tests can substitute a stub or point the implementation at a local server.
+ */
+public interface ImgurClient {
+
+    /**
+     * Uploads an image to Imgur without blocking the caller.
+     *
+     * @param image the image content; file-backed resources are streamed from disk
+     * @return a future completing with the Imgur response containing the link and delete hash
+     */
+    CompletableFuture<ImgurResponse> uploadAsync(Resource image);
+
+    /**
+     * Deletes an image from Imgur without blocking the caller.
+     *
+     * @param deleteHash the delete hash returned when the image was uploaded
+     * @return a future completing once Imgur has confirmed the deletion
+     */
+    CompletableFuture<Void> deleteAsync(String deleteHash);
+
+    /**
+     * Uploads an image to Imgur, blocking until the response arrives.
+     *
+     * @param image the image content; file-backed resources are streamed from disk
+     * @return the Imgur response containing the link and delete hash
+     */
+    ImgurResponse upload(Resource image);
+
+    /**
+     * Deletes an image from Imgur, blocking until the response arrives.
+     *
+     * @param deleteHash the delete hash returned when the image was uploaded
+     */
+    void delete(String deleteHash);
+}
@@ -0,0 +1,177 @@
+package com.imgur.imgurservice.client;
+
+import com.imgur.imgurservice.exception.ImgurApiException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpHeaders;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Client-side token bucket that keeps us within Imgur's credit limits.
+ * Imgur reports the credits left for the application and the user in the {@code X-RateLimit-*}
+ * headers of every response; {@link #observe(HttpHeaders)} spreads what is left evenly until the
+ * reset, and {@link #reserve(int)} paces outgoing requests against that budget. The bucket lives in
+ * Redis and is updated by Lua scripts, so every replica and worker draws from the same credit.
+ * If Redis is unreachable the limiter fails open and Imgur's own 429s take over.
+ */
+@Slf4j
+@Component
+public class ImgurRateLimiter {
+
+    static final String CLIENT_REMAINING = "X-RateLimit-ClientRemaining";
+    static final String USER_REMAINING = "X-RateLimit-UserRemaining";
+    static final String USER_RESET = "X-RateLimit-UserReset";
+
+    private static final RedisSerializer<String> ARGS = new StringRedisSerializer();
+    private static final RedisSerializer<Long> RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisScript<Long> reserveScript = script("scripts/imgur-credit-reserve.lua");
+    private final RedisScript<Long> observeScript = script("scripts/imgur-credit-observe.lua");
+    private final RedisScript<Long> checkScript = script("scripts/imgur-credit-check.lua");
+
+    @Value("${imgur.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${imgur.ratelimit.key:imgur:ratelimit}")
+    private String key;
+
+    /**
+     * Credits charged by Imgur for an upload.
+     */
+    @Getter
+    @Value("${imgur.ratelimit.upload-cost:10}")
+    private int uploadCost;
+
+    /**
+     * Credits charged by Imgur for a delete.
+     */
+    @Getter
+    @Value("${imgur.ratelimit.delete-cost:1}")
+    private int deleteCost;
+
+    /**
+     * Credits that may be spent back to back before pacing kicks in.
+     */
+    @Value("${imgur.ratelimit.burst:50}")
+    private long burst;
+
+    /**
+     * Pace used before Imgur has reported its limits, in credits per second.
+     */
+    @Value("${imgur.ratelimit.default-credits-per-second:5}")
+    private double defaultCreditsPerSecond;
+
+    /**
+     * Credits left untouched so interactive traffic is not starved by queued work.
+     */
+    @Value("${imgur.ratelimit.reserve:20}")
+    private long reserve;
+
+    /**
+     * Longest a request may be delayed by pacing before it is rejected instead.
+     */
+    @Value("${imgur.ratelimit.max-wait-ms:60000}")
+    private long maxWaitMs;
+
+    /**
+     * Window assumed when Imgur does not send a reset time.
+     */
+    @Value("${imgur.ratelimit.default-reset-ms:3600000}")
+    private long defaultResetMs;
+
+    public ImgurRateLimiter(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Reserves credit for a request.
+     *
+     * @param cost the credits the request will consume
+     * @return how long to wait before sending it, in milliseconds
+     * @throws ImgurApiException with status 429 and a retry hint if the credit is exhausted or the wait
+     *                           would exceed the configured maximum
+     */
+    public long reserve(int cost) {
+        if (!enabled) {
+            return 0;
+        }
+        Long result = execute(reserveScript, String.valueOf(cost), String.valueOf(burst),
+                String.valueOf(defaultCreditsPerSecond / 1000), String.valueOf(reserve),
+                String.valueOf(maxWaitMs), String.valueOf(Math.max(defaultResetMs, maxWaitMs)));
+        if (result == null) {
+            return 0;
+        }
+        if (result < 0) {
+            throw new ImgurApiException("Imgur credit exhausted", 429, -result);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether there is credit left for an upload, without reserving it.
+     *
+     * @return 0 if an upload can be accepted, otherwise the milliseconds until Imgur resets the credits
+     */
+    public long uploadRetryAfterMs() {
+        if (!enabled) {
+            return 0;
+        }
+        Long result = execute(checkScript, String.valueOf(uploadCost), String.valueOf(reserve));
+        return result != null ? result : 0;
+    }
+
+    /**
+     * Updates the shared bucket from the rate limit headers of an Imgur response.
+     * Responses without those headers are ignored.
+     *
+     * @param headers the response headers
+     */
+    public void observe(HttpHeaders headers) {
+        if (!enabled) {
+            return;
+        }
+        OptionalLong clientRemaining = headers.firstValueAsLong(CLIENT_REMAINING);
+        OptionalLong userRemaining = headers.firstValueAsLong(USER_REMAINING);
+        if (clientRemaining.isEmpty() && userRemaining.isEmpty()) {
+            return;
+        }
+        long remaining = Math.min(clientRemaining.orElse(Long.MAX_VALUE), userRemaining.orElse(Long.MAX_VALUE));
+        // UserReset is a Unix timestamp in seconds
+        long resetInMs = headers.firstValueAsLong(USER_RESET).stream()
+                .map(reset -> reset * 1000 - Instant.now().toEpochMilli())
+                .filter(ms -> ms > 0)
+                .findFirst()
+                .orElse(defaultResetMs);
+        execute(observeScript, String.valueOf(remaining), String.valueOf(resetInMs),
+                String.valueOf(burst), String.valueOf(reserve), String.valueOf(defaultResetMs));
+    }
+
+    private Long execute(RedisScript<Long> script, Object... args) {
+        try {
+            return redisTemplate.execute(script, ARGS, RESULT, List.of(key), args);
+        } catch (RuntimeException e) {
+            log.warn("Imgur rate limiter unavailable, letting the request through: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static RedisScript<Long> script(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
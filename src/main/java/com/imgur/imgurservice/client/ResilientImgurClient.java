@@ -0,0 +1,220 @@
+package com.imgur.imgurservice.client;
+
+import com.imgur.imgurservice.exception.ImgurApiException;
+import com.imgur.imgurservice.model.Imgurmodel.ImgurResponse;
+import com.imgur.imgurservice.util.Futures;
+import com.imgur.imgurservice.util.InFlightLimiter;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer in front of {@link HttpImgurClient}.
+ * Each route (upload, delete) gets its own bulkhead, circuit breaker and retry so trouble on one
+ * cannot spill over to the other:
+ * <ul>
+ *     <li>the {@link ImgurRateLimiter} paces each attempt against the credit Imgur reports;</li>
+ *     <li>the bulkhead caps requests in flight and rejects once its queue is full;</li>
+ *     <li>the circuit breaker opens when Imgur keeps answering 429/5xx or not answering at all, and
+ *     fails calls fast until it lets a few probes through;</li>
+ *     <li>the retry backs off exponentially with jitter, and never earlier than Imgur's Retry-After.</li>
+ * </ul>
+ * Uploads are only retried when Imgur answered with a retryable status: after a timeout the image may
+ * already have been stored, and a blind retry would leave an orphan on Imgur. Deletes are idempotent
+ * and are also retried after transport failures.
+ * Breaker and retry state is available through the {@code circuitbreakers}, {@code circuitbreakerevents},
+ * {@code retries} and {@code retryevents} actuator endpoints.
+ */
+@Slf4j
+@Primary
+@Component
+public class ResilientImgurClient implements ImgurClient {
+
+    static final String UPLOAD_INSTANCE = "imgurUpload";
+    static final String DELETE_INSTANCE = "imgurDelete";
+
+    /**
+     * Failures that say something about Imgur's health and count against the circuit breaker.
+     */
+    private static final Predicate<Throwable> IMGUR_UNHEALTHY = error ->
+            Futures.unwrap(error) instanceof ImgurApiException e && (e.isRetryableResponse() || e.isTransportFailure());
+
+    private final ImgurClient delegate;
+    private final ImgurRateLimiter rateLimiter;
+    private final InFlightLimiter uploadBulkhead;
+    private final InFlightLimiter deleteBulkhead;
+    private final ScheduledExecutorService retryScheduler;
+    private final Executor rateLimitExecutor;
+    private final CircuitBreaker uploadBreaker;
+    private final CircuitBreaker deleteBreaker;
+    private final Retry uploadRetry;
+    private final Retry deleteRetry;
+
+    /**
+     * Longest backoff between attempts; a Retry-After beyond this is not waited for and fails the call.
+     */
+    private final long maxBackoffMs;
+
+    public ResilientImgurClient(HttpImgurClient delegate, ImgurRateLimiter rateLimiter,
+                                @Qualifier("imgurUploadBulkhead") InFlightLimiter uploadBulkhead,
+                                @Qualifier("imgurDeleteBulkhead") InFlightLimiter deleteBulkhead,
+                                @Qualifier("imgurRetryScheduler") ScheduledExecutorService retryScheduler,
+                                @Qualifier("imgurRateLimitExecutor") Executor rateLimitExecutor,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                RetryRegistry retryRegistry,
+                                @Value("${imgur.resilience.retry.max-attempts:4}") int maxAttempts,
+                                @Value("${imgur.resilience.retry.initial-backoff-ms:500}") long initialBackoffMs,
+                                @Value("${imgur.resilience.retry.multiplier:2.0}") double multiplier,
+                                @Value("${imgur.resilience.retry.jitter:0.5}") double jitter,
+                                @Value("${imgur.resilience.retry.max-backoff-ms:30000}") long maxBackoffMs) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.uploadBulkhead = uploadBulkhead;
+        this.deleteBulkhead = deleteBulkhead;
+        this.retryScheduler = retryScheduler;
+        this.rateLimitExecutor = rateLimitExecutor;
+        this.maxBackoffMs = maxBackoffMs;
+
+        CircuitBreakerConfig breakerConfig = CircuitBreakerConfig.from(circuitBreakerRegistry.getDefaultConfig())
+                .recordException(IMGUR_UNHEALTHY)
+                .build();
+        this.uploadBreaker = circuitBreakerRegistry.circuitBreaker(UPLOAD_INSTANCE, breakerConfig);
+        this.deleteBreaker = circuitBreakerRegistry.circuitBreaker(DELETE_INSTANCE, breakerConfig);
+
+        IntervalFunction backoff = IntervalFunction.ofExponentialRandomBackoff(
+                Duration.ofMillis(initialBackoffMs), multiplier, jitter, Duration.ofMillis(maxBackoffMs));
+        this.uploadRetry = retryRegistry.retry(UPLOAD_INSTANCE,
+                retryConfig(maxAttempts, backoff, this::isRetryableUploadFailure));
+        this.deleteRetry = retryRegistry.retry(DELETE_INSTANCE,
+                retryConfig(maxAttempts, backoff, this::isRetryableDeleteFailure));
+
+        for (CircuitBreaker breaker : new CircuitBreaker[]{uploadBreaker, deleteBreaker}) {
+            breaker.getEventPublisher().onStateTransition(event ->
+                    log.warn("Imgur circuit breaker {} changed state: {}", event.getCircuitBreakerName(),
+                            event.getStateTransition()));
+        }
+        for (Retry retry : new Retry[]{uploadRetry, deleteRetry}) {
+            retry.getEventPublisher().onRetry(event ->
+                    log.info("Retrying Imgur call {} (attempt {}) in {} ms: {}", event.getName(),
+                            event.getNumberOfRetryAttempts(), event.getWaitInterval().toMillis(),
+                            event.getLastThrowable() != null ? event.getLastThrowable().getMessage() : "-"));
+        }
+    }
+
+    @Override
+    public CompletableFuture<ImgurResponse> uploadAsync(Resource image) {
+        return guard(uploadRetry, rateLimiter.getUploadCost(), uploadBulkhead, uploadBreaker, () -> delegate.uploadAsync(image));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String deleteHash) {
+        return guard(deleteRetry, rateLimiter.getDeleteCost(), deleteBulkhead, deleteBreaker, () -> delegate.deleteAsync(deleteHash));
+    }
+
+    @Override
+    public ImgurResponse upload(Resource image) {
+        return HttpImgurClient.await(uploadAsync(image));
+    }
+
+    @Override
+    public void delete(String deleteHash) {
+        HttpImgurClient.await(deleteAsync(deleteHash));
+    }
+
+    /**
+     * Runs a call as retry(pace(bulkhead(breaker(call)))): every attempt is paced and takes its own
+     * bulkhead slot, and attempts held back by us never reach the breaker, so our own back-pressure does
+     * not count as an Imgur failure.
+     */
+    private <T> CompletableFuture<T> guard(Retry retry, int cost, InFlightLimiter bulkhead, CircuitBreaker breaker,
+                                           Supplier<CompletableFuture<T>> call) {
+        Supplier<CompletionStage<T>> protectedCall = CircuitBreaker.decorateCompletionStage(breaker, call::get);
+        Supplier<CompletionStage<T>> attempt = () -> pace(cost)
+                .thenCompose(ignored -> bulkhead.submit(() -> protectedCall.get().toCompletableFuture()));
+        return Retry.decorateCompletionStage(retry, retryScheduler, attempt).get()
+                .toCompletableFuture()
+                .exceptionallyCompose(error -> {
+                    Throwable cause = Futures.unwrap(error);
+                    if (cause instanceof RejectedExecutionException) {
+                        return CompletableFuture.failedFuture(new ImgurApiException(cause.getMessage(), 0));
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    /**
+     * Reserves credit for an attempt and completes once it may be sent. The reservation runs on the rate
+     * limiter's executor and the wait on the retry scheduler, so no thread is held on Redis or on the delay.
+     */
+    private CompletableFuture<Void> pace(int cost) {
+        CompletableFuture<Long> reserved;
+        try {
+            reserved = CompletableFuture.supplyAsync(() -> rateLimiter.reserve(cost), rateLimitExecutor);
+        } catch (RejectedExecutionException e) {
+            // Limiter executor saturated: let the attempt through, as when Redis is unreachable
+            return CompletableFuture.completedFuture(null);
+        }
+        return reserved.thenCompose(delayMs -> {
+            if (delayMs <= 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.runAsync(() -> { },
+                    CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, retryScheduler));
+        });
+    }
+
+    private boolean isRetryableUploadFailure(Throwable error) {
+        return Futures.unwrap(error) instanceof ImgurApiException e
+                && e.isRetryableResponse() && withinBackoff(e);
+    }
+
+    private boolean isRetryableDeleteFailure(Throwable error) {
+        return Futures.unwrap(error) instanceof ImgurApiException e
+                && (e.isRetryableResponse() || e.isTransportFailure()) && withinBackoff(e);
+    }
+
+    private boolean withinBackoff(ImgurApiException e) {
+        return e.getRetryAfterMs() == null || e.getRetryAfterMs() <= maxBackoffMs;
+    }
+
+    /**
+     * Builds a retry policy whose wait is the jittered exponential backoff, raised to Imgur's
+     * Retry-After when the failed attempt carried one.
+     */
+    private static RetryConfig retryConfig(int maxAttempts, IntervalFunction backoff, Predicate<Throwable> retryable) {
+        IntervalBiFunction<Object> interval = (attempt, outcome) -> {
+            long wait = backoff.apply(attempt);
+            if (outcome.isLeft() && Futures.unwrap(outcome.getLeft()) instanceof ImgurApiException e
+                    && e.getRetryAfterMs() != null) {
+                wait = Math.max(wait, e.getRetryAfterMs());
+            }
+            return wait;
+        };
+        return RetryConfig.<Object>custom()
+                .maxAttempts(maxAttempts)
+                .retryOnException(retryable)
+                .intervalBiFunction(interval)
+                .build();
+    }
+}
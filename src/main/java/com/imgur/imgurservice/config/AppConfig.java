@@ -1,31 +1,58 @@
 package com.imgur.imgurservice.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imgur.imgurservice.util.JwtTokenManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
+import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Configuration class for application-level settings and beans.
- * Provides a bean for password encoding.
+ * Provides beans for password encoding and request authentication.
  */
 @Configuration
+@SecurityScheme(name = AppConfig.BEARER_AUTH, type = SecuritySchemeType.HTTP, scheme = "bearer", bearerFormat = "JWT")
 public class AppConfig {
 
+    /**
+     * Name of the OpenAPI security scheme for endpoints that need a bearer token.
+     */
+    public static final String BEARER_AUTH = "bearerAuth";
+
     /**
      * Configures a PasswordEncoder bean using BCrypt for secure password hashing.
+     * Stored hashes with a lower cost are rehashed at the user's next successful login.
      *
+     * @param strength the BCrypt cost factor (log2 of the rounds)
      * @return an instance of BCryptPasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
+    /**
+     * Registers the bearer token filter for the image and user APIs.
+     * It runs ahead of the other filters, so rejected requests are answered before any body is read.
+     *
+     * @return the filter registration
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilter(JwtTokenManager jwtTokenManager,
+                                                                                   ObjectMapper objectMapper,
+                                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(new JwtAuthenticationFilter(jwtTokenManager, objectMapper, meterRegistry));
+        registration.addUrlPatterns("/images/*", "/users/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
     }
     // Additional beans can be added here as needed.
-}
\ No newline at end of file
+}
@@ -1,33 +1,163 @@
 package com.imgur.imgurservice.config;
 
+import com.imgur.imgurservice.util.BoundedVirtualThreadExecutor;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Configures the executors for the async upload and delete paths.
+ * When {@code spring.threads.virtual.enabled} is set, Tomcat (via Spring Boot) and both executors run
+ * on virtual threads. Concurrency against the database is then capped by the database limiter, and
+ * against Imgur by the client's in-flight limiter, instead of by pool size.
+ * The upload and delete executors publish {@code imgur.executor.queued}, {@code imgur.executor.active} and
+ * {@code imgur.executor.rejected}, tagged with the executor's name, to size them from; on virtual threads
+ * nothing queues, so only the active and rejected meters are published.
+ */
 @Configuration
 public class AsyncConfig {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Worker pool for upload jobs. The queue is bounded and the default abort policy is kept,
+     * so a full pool surfaces as a rejection instead of silently piling up work.
+     */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(@Value("${imgur.upload.workers.core-size:10}") int coreSize,
+                                 @Value("${imgur.upload.workers.max-size:50}") int maxSize,
+                                 @Value("${imgur.upload.workers.queue-capacity:100}") int queueCapacity,
+                                 MeterRegistry meterRegistry) {
+        if (virtualThreads) {
+            return instrument("taskExecutor",
+                    new BoundedVirtualThreadExecutor("AsyncImageUpload-", maxSize + queueCapacity), meterRegistry);
+        }
+        return instrument("taskExecutor", coreSize, maxSize, queueCapacity, "AsyncImageUpload-", meterRegistry);
+    }
+
+    /**
+     * Worker pool for the delete paths, sized independently of uploads and bounded the same way.
+     */
+    @Bean(name = "deleteTaskExecutor")
+    public Executor deleteTaskExecutor(@Value("${imgur.delete.workers.core-size:5}") int coreSize,
+                                       @Value("${imgur.delete.workers.max-size:20}") int maxSize,
+                                       @Value("${imgur.delete.workers.queue-capacity:50}") int queueCapacity,
+                                       MeterRegistry meterRegistry) {
+        if (virtualThreads) {
+            return instrument("deleteTaskExecutor",
+                    new BoundedVirtualThreadExecutor("AsyncImageDelete-", maxSize + queueCapacity), meterRegistry);
+        }
+        return instrument("deleteTaskExecutor", coreSize, maxSize, queueCapacity, "AsyncImageDelete-", meterRegistry);
+    }
+
+    /**
+     * Pool for password hashing during login. BCrypt is CPU-bound, so the pool stays small and always uses
+     * platform threads; a full queue rejects the login rather than letting a burst pin the Tomcat threads.
+     */
+    @Bean(name = "loginExecutor")
+    public Executor loginExecutor(@Value("${auth.login.workers:4}") int workers,
+                                  @Value("${auth.login.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("Login-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Small pool for background cache refreshes. When it is full a refresh is skipped and the
+     * current value is served until the next attempt.
+     */
+    @Bean(name = "cacheRefreshExecutor")
+    public Executor cacheRefreshExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(50);
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
         executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("AsyncImageUpload-");
+        executor.setThreadNamePrefix("CacheRefresh-");
         executor.initialize();
         return executor;
     }
 
-    @Bean(name = "deleteTaskExecutor")
-    public Executor deleteTaskExecutor() {
+    /**
+     * Pool for Spring MVC's async requests, i.e. streamed image listings. Each stream holds a database
+     * permit and connection while it runs, so the pool is kept well below the database limiter; a full
+     * queue rejects the request instead of starting an unbounded number of threads.
+     */
+    @Bean(name = "mvcAsyncExecutor")
+    public ThreadPoolTaskExecutor mvcAsyncExecutor(@Value("${imgur.list.stream.workers:20}") int workers,
+                                                   @Value("${imgur.list.stream.queue-capacity:50}") int queueCapacity,
+                                                   MeterRegistry meterRegistry) {
+        return instrument("mvcAsyncExecutor", workers, workers, queueCapacity, "StreamImages-", meterRegistry);
+    }
+
+    /**
+     * Builds a platform thread pool that counts the tasks its abort policy rejects, and registers its meters.
+     */
+    private static ThreadPoolTaskExecutor instrument(String name, int coreSize, int maxSize, int queueCapacity,
+                                                     String threadNamePrefix, MeterRegistry meterRegistry) {
+        AtomicLong rejected = new AtomicLong();
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("AsyncImageDelete-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Task " + task + " rejected from " + name);
+        });
         executor.initialize();
+
+        Gauge.builder("imgur.executor.queued", executor, pool -> pool.getThreadPoolExecutor().getQueue().size())
+                .description("Tasks waiting in the executor's queue")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("imgur.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Threads running a task")
+                .tag("name", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("imgur.executor.rejected", rejected, AtomicLong::get)
+                .description("Tasks rejected because the executor was full")
+                .tag("name", name)
+                .register(meterRegistry);
         return executor;
     }
+
+    /**
+     * Registers the meters of a virtual thread executor. Its tasks start right away, so it has no queue.
+     */
+    private static BoundedVirtualThreadExecutor instrument(String name, BoundedVirtualThreadExecutor executor,
+                                                           MeterRegistry meterRegistry) {
+        Gauge.builder("imgur.executor.active", executor, BoundedVirtualThreadExecutor::getActiveCount)
+                .description("Tasks admitted and not yet finished")
+                .tag("name", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("imgur.executor.rejected", executor, BoundedVirtualThreadExecutor::getRejectedCount)
+                .description("Tasks rejected because the executor was at capacity")
+                .tag("name", name)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Caps concurrent database work from the async workers to the size of the Hikari pool,
+     * so workers queue here rather than timing out inside Hikari.
+     */
+    @Bean(name = "databaseLimiter")
+    public ResourceLimiter databaseLimiter(@Value("${imgur.execution.database-permits:${spring.datasource.hikari.maximumPoolSize:10}}") int permits,
+                                           @Value("${imgur.execution.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        return new ResourceLimiter("database", permits, acquireTimeoutMs);
+    }
 }
@@ -0,0 +1,71 @@
+package com.imgur.imgurservice.config;
+
+import com.imgur.imgurservice.util.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits database traffic between the primary and a read replica, once {@code datasource.replica.url}
+ * is set; without it the single auto-configured pool is used as before.
+ * Read-only transactions take their connection from the replica, everything else from the primary.
+ * The connection is only fetched at the first statement, after the transaction has declared itself
+ * read-only; reads pinned by {@link com.imgur.imgurservice.service.ReadYourWrites} stay on the primary.
+ * Schema migrations run against the primary and reach the replica through replication.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class DataSourceRoutingConfig {
+
+    /**
+     * The primary's pool, configured from {@code spring.datasource} as the auto-configured one would be.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * The replica's pool. It only serves reads, so its connections are opened read-only.
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+                                              @Value("${datasource.replica.maximum-pool-size:50}") int maximumPoolSize,
+                                              @Value("${spring.datasource.hikari.connectionTimeout:2000}") long connectionTimeout) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setConnectionTimeout(connectionTimeout);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The data source JPA, Flyway and the repositories use.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(replica, primary));
+        return dataSource;
+    }
+}
@@ -0,0 +1,47 @@
+package com.imgur.imgurservice.config;
+
+import com.imgur.imgurservice.util.SlowRepositoryCallLogger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Database instrumentation on top of what Spring Boot's actuator already records.
+ * The connection pools report {@code hikaricp.connections.*} (active, idle, pending, acquire and
+ * usage times, timeouts) per pool, and every repository call is timed in
+ * {@code spring.data.repository.invocations}, tagged with the repository, method and outcome; both
+ * are published as histograms (see {@code management.metrics.distribution} in application.yml).
+ * This adds the slow-call log for repository methods.
+ */
+@Configuration
+public class DatabaseMetricsConfig {
+
+    @Bean
+    public SlowRepositoryCallLogger slowRepositoryCallLogger(MeterRegistry meterRegistry,
+                                                             @Value("${db.slow-query.threshold-ms:200}") long thresholdMs) {
+        return new SlowRepositoryCallLogger(meterRegistry, thresholdMs);
+    }
+
+    /**
+     * Attaches the slow-call logger to every repository as it is created.
+     * Static, and looking the logger up lazily, so that registering it does not create the meter
+     * registry before the other post-processors have run.
+     */
+    @Bean
+    public static BeanPostProcessor slowRepositoryCallLoggerRegistrar(ObjectProvider<SlowRepositoryCallLogger> logger) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory) {
+                    repositoryFactory.addRepositoryFactoryCustomizer(factory ->
+                            factory.addInvocationListener(logger.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.imgur.imgurservice.config;
+
+import com.imgur.imgurservice.util.InFlightLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the HTTP client used to talk to Imgur.
+ * The JDK client negotiates HTTP/2 over TLS and keeps connections alive in its internal pool, so
+ * repeated uploads and deletes reuse connections instead of paying a TLS handshake each time.
+ * Pool limits are JVM-wide and set with the {@code jdk.httpclient.connectionPoolSize} and
+ * {@code jdk.httpclient.keepalive.timeout} system properties.
+ */
+@Configuration
+public class ImgurClientConfig {
+
+    /**
+     * Small pool that drives the client's asynchronous callbacks; a couple of threads are enough
+     * for hundreds of concurrent requests because none of them block on I/O.
+     */
+    @Bean(name = "imgurHttpExecutor", destroyMethod = "shutdown")
+    public ExecutorService imgurHttpExecutor(@Value("${imgur.http.io-threads:2}") int ioThreads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ImgurHttp-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(ioThreads, threadFactory);
+    }
+
+    /**
+     * Starts Imgur calls that waited in a bulkhead once a slot frees, so they never run on the HTTP
+     * client's threads or pile up on the stack of the call that freed the slot.
+     */
+    @Bean(name = "imgurDispatchExecutor", destroyMethod = "shutdown")
+    public ExecutorService imgurDispatchExecutor(@Value("${imgur.http.dispatch-threads:2}") int dispatchThreads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ImgurDispatch-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(dispatchThreads, threadFactory);
+    }
+
+    /**
+     * Runs the rate limiter's Redis scripts, so neither the HTTP client's threads nor the retry scheduler
+     * ever wait on Redis. The queue is bounded; work it cannot take is skipped and the limiter fails open.
+     */
+    @Bean(name = "imgurRateLimitExecutor", destroyMethod = "shutdown")
+    public ExecutorService imgurRateLimitExecutor(@Value("${imgur.ratelimit.threads:2}") int threads,
+                                                  @Value("${imgur.ratelimit.queue-capacity:1000}") int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ImgurRateLimit-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
+    @Bean(name = "imgurHttpClient")
+    public HttpClient imgurHttpClient(@Value("${imgur.http.version:HTTP_2}") HttpClient.Version version,
+                                      @Value("${imgur.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                      @Qualifier("imgurHttpExecutor") ExecutorService imgurHttpExecutor) {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(imgurHttpExecutor)
+                .build();
+    }
+
+    /**
+     * Bulkhead for uploads: caps the upload requests in flight so a slow upload path cannot starve
+     * deletes. Overflow waits in a bounded queue and is rejected beyond that.
+     */
+    @Bean(name = "imgurUploadBulkhead")
+    public InFlightLimiter imgurUploadBulkhead(@Value("${imgur.resilience.upload.max-in-flight:150}") int maxInFlight,
+                                               @Value("${imgur.resilience.upload.max-queued:800}") int maxQueued,
+                                               @Qualifier("imgurDispatchExecutor") ExecutorService imgurDispatchExecutor,
+                                               MeterRegistry meterRegistry) {
+        return bulkhead("upload", maxInFlight, maxQueued, imgurDispatchExecutor, meterRegistry);
+    }
+
+    /**
+     * Bulkhead for deletes, sized independently of uploads.
+     */
+    @Bean(name = "imgurDeleteBulkhead")
+    public InFlightLimiter imgurDeleteBulkhead(@Value("${imgur.resilience.delete.max-in-flight:50}") int maxInFlight,
+                                               @Value("${imgur.resilience.delete.max-queued:200}") int maxQueued,
+                                               @Qualifier("imgurDispatchExecutor") ExecutorService imgurDispatchExecutor,
+                                               MeterRegistry meterRegistry) {
+        return bulkhead("delete", maxInFlight, maxQueued, imgurDispatchExecutor, meterRegistry);
+    }
+
+    /**
+     * Single daemon thread that schedules retry attempts after their backoff; the attempts themselves
+     * run on the HTTP client's threads.
+     */
+    @Bean(name = "imgurRetryScheduler", destroyMethod = "shutdown")
+    public ScheduledExecutorService imgurRetryScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ImgurRetry-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    private static InFlightLimiter bulkhead(String route, int maxInFlight, int maxQueued, Executor dispatcher,
+                                            MeterRegistry meterRegistry) {
+        InFlightLimiter limiter = new InFlightLimiter("imgur-" + route, maxInFlight, maxQueued, dispatcher);
+        Gauge.builder("imgur.client.limiter.in.flight", limiter, InFlightLimiter::getInFlight)
+                .description("Imgur requests holding an in-flight slot")
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("imgur.client.limiter.queued", limiter, InFlightLimiter::getQueued)
+                .description("Imgur requests waiting for an in-flight slot")
+                .tag("route", route)
+                .register(meterRegistry);
+        FunctionCounter.builder("imgur.client.limiter.rejected", limiter, InFlightLimiter::getRejected)
+                .description("Imgur requests rejected because the queue was full")
+                .tag("route", route)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,148 @@
+package com.imgur.imgurservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imgur.imgurservice.exception.AccessDeniedException;
+import com.imgur.imgurservice.exception.ErrorResponse;
+import com.imgur.imgurservice.model.AuthenticatedUser;
+import com.imgur.imgurservice.util.JwtTokenManager;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates requests by their bearer token before they reach the controllers.
+ * The token is verified once and the resulting {@link AuthenticatedUser} is stored as a request attribute
+ * and exposed as the request's principal. Requests without a valid token are answered with 401 right away,
+ * before Spring parses a multipart body, so a client with an expired token does not get to upload a file first.
+ * Registration and login are left open. Verification time is recorded in the {@code auth.token.verification}
+ * timer, tagged by outcome.
+ */
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenManager jwtTokenManager;
+    private final ObjectMapper objectMapper;
+    private final Timer successTimer;
+    private final Timer missingTimer;
+    private final Timer invalidTimer;
+
+    public JwtAuthenticationFilter(JwtTokenManager jwtTokenManager, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jwtTokenManager = jwtTokenManager;
+        this.objectMapper = objectMapper;
+        this.successTimer = timer(meterRegistry, "success");
+        this.missingTimer = timer(meterRegistry, "missing");
+        this.invalidTimer = timer(meterRegistry, "invalid");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return "POST".equals(request.getMethod()) && ("/users".equals(path) || "/users/login".equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String token = bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (token == null) {
+            missingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            reject(response, "Missing bearer token");
+            return;
+        }
+
+        AuthenticatedUser user;
+        try {
+            Claims claims = jwtTokenManager.verifyToken(token);
+            user = new AuthenticatedUser(claims.getSubject(),
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+        } catch (AccessDeniedException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Rejecting {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+            reject(response, e.getMessage());
+            return;
+        }
+        successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        request.setAttribute(AuthenticatedUser.ATTRIBUTE, user);
+        chain.doFilter(new AuthenticatedRequest(request, user), response);
+    }
+
+    /**
+     * Extracts the token from an {@code Authorization: Bearer <token>} header. The scheme name is matched
+     * case-insensitively; any other scheme counts as no token at all.
+     *
+     * @return the token, or null if the header is absent, uses another scheme or carries no token
+     */
+    private static String bearerToken(String header) {
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    /**
+     * Writes the same 401 body the exception handler produces for {@link AccessDeniedException};
+     * exceptions thrown from a filter do not reach the controller advice.
+     */
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setTimestamp(LocalDateTime.now());
+        errorResponse.setStatus(HttpStatus.UNAUTHORIZED.value());
+        errorResponse.setError("Access denied");
+        errorResponse.setMessage(message);
+
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.token.verification")
+                .description("Time spent authenticating a request's bearer token")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exposes the authenticated user through the standard servlet principal accessors.
+     */
+    private static final class AuthenticatedRequest extends HttpServletRequestWrapper {
+
+        private final AuthenticatedUser user;
+
+        AuthenticatedRequest(HttpServletRequest request, AuthenticatedUser user) {
+            super(request);
+            this.user = user;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return user;
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return user.username();
+        }
+    }
+}
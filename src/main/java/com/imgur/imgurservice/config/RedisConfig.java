@@ -1,6 +1,10 @@
 package com.imgur.imgurservice.config;
 
-import org.springframework.cache.CacheManager;
+import com.imgur.imgurservice.util.CompactCacheSerializer;
+import com.imgur.imgurservice.util.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,14 +13,57 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    /**
+     * Channel on which replicas announce cache writes and evictions to each other.
+     */
+    @Value("${cache.invalidation-channel:cache:invalidation}")
+    private String invalidationChannel;
+
+    /**
+     * Cached values larger than this many bytes are gzipped in Redis; 0 disables compression.
+     */
+    @Value("${cache.redis.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    /**
+     * Redis TTL for caches without their own settings.
+     */
+    @Value("${cache.redis.default-ttl:3600000}")
+    private long defaultTtlMs;
+
+    @Value("${cache.user.redis.ttl:3600000}")
+    private long userTtlMs;
+
+    @Value("${cache.user.redis.key-prefix:users::}")
+    private String userKeyPrefix;
+
+    @Value("${cache.user.redis.cache-null-values:false}")
+    private boolean userCacheNullValues;
+
+    @Value("${cache.image.redis.ttl:3600000}")
+    private long imageTtlMs;
+
+    @Value("${cache.image.redis.key-prefix:imagesByUser::}")
+    private String imageKeyPrefix;
+
+    @Value("${cache.image.redis.cache-null-values:false}")
+    private boolean imageCacheNullValues;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         return new LettuceConnectionFactory();
@@ -31,12 +78,62 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Serves "users" and "imagesByUser" from an in-process tier backed by Redis, sized by the
+     * {@code cache.user.*} and {@code cache.image.*} properties. In Redis each of them has its own TTL,
+     * key prefix and null-value setting, and values are stored with the {@link CompactCacheSerializer}.
+     * Image pages are refreshed shortly before they expire, in the background if
+     * {@code cache.image.stale-while-revalidate} is set.
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
-                        .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer())))
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                            StringRedisTemplate stringRedisTemplate,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${cache.user.size:10000}") long userCacheSize,
+                                            @Value("${cache.user.ttl:3600000}") long userCacheTtlMs,
+                                            @Value("${cache.image.size:50000}") long imageCacheSize,
+                                            @Value("${cache.image.ttl:3600000}") long imageCacheTtlMs,
+                                            @Value("${cache.image.early-refresh-beta:1.0}") double imageEarlyRefreshBeta,
+                                            @Value("${cache.image.stale-while-revalidate:false}") boolean imageStaleWhileRevalidate,
+                                            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMillis(defaultTtlMs))
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new CompactCacheSerializer(compressionThreshold)));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(defaults)
+                .withCacheConfiguration("users", cacheConfiguration(defaults, userTtlMs, userKeyPrefix, userCacheNullValues))
+                .withCacheConfiguration("imagesByUser", cacheConfiguration(defaults, imageTtlMs, imageKeyPrefix, imageCacheNullValues))
+                .enableStatistics()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        Map<String, TwoTierCacheManager.LocalSettings> localSettings = Map.of(
+                "users", new TwoTierCacheManager.LocalSettings(userCacheSize, Duration.ofMillis(userCacheTtlMs)),
+                "imagesByUser", new TwoTierCacheManager.LocalSettings(imageCacheSize, Duration.ofMillis(imageCacheTtlMs),
+                        imageEarlyRefreshBeta, imageStaleWhileRevalidate));
+        return new TwoTierCacheManager(redisCacheManager, localSettings, stringRedisTemplate, invalidationChannel,
+                meterRegistry, cacheRefreshExecutor);
+    }
+
+    private static RedisCacheConfiguration cacheConfiguration(RedisCacheConfiguration defaults, long ttlMs,
+                                                              String keyPrefix, boolean cacheNullValues) {
+        RedisCacheConfiguration configuration = defaults
+                .entryTtl(Duration.ofMillis(ttlMs))
+                .computePrefixWith(cacheName -> keyPrefix);
+        return cacheNullValues ? configuration : configuration.disableCachingNullValues();
+    }
+
+    /**
+     * Listens for other replicas' cache invalidations and applies them to the local tier.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory redisConnectionFactory,
+                                                                   TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
     }
 }
@@ -0,0 +1,37 @@
+package com.imgur.imgurservice.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC settings.
+ * Async requests (the streamed image listing) run on the bounded {@code mvcAsyncExecutor}. Boot would
+ * otherwise use its {@code applicationTaskExecutor}, which is not created because this application defines
+ * its own executors, and MVC would fall back to a thread per request. They are also given a short timeout,
+ * so a stalled client cannot hold a database connection for long.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor mvcAsyncExecutor;
+
+    /**
+     * Time an async request may take before it is answered with 503 and its stream is cut off.
+     */
+    @Value("${imgur.list.stream.timeout-ms:30000}")
+    private long streamTimeoutMs;
+
+    public WebMvcConfig(@Qualifier("mvcAsyncExecutor") AsyncTaskExecutor mvcAsyncExecutor) {
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+        configurer.setDefaultTimeout(streamTimeoutMs);
+    }
+}
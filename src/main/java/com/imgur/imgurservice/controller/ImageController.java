@@ -1,64 +1,79 @@
 package com.imgur.imgurservice.controller;
 
+import com.imgur.imgurservice.config.AppConfig;
 import com.imgur.imgurservice.exception.ErrorResponse;
 import com.imgur.imgurservice.exception.InvalidImageException;
+import com.imgur.imgurservice.model.AuthenticatedUser;
+import com.imgur.imgurservice.model.BatchUploadResponse;
+import com.imgur.imgurservice.model.BulkDeleteRequest;
+import com.imgur.imgurservice.model.BulkDeleteResponse;
+import com.imgur.imgurservice.model.ImagePageResponse;
 import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.model.UploadJobResponse;
 import com.imgur.imgurservice.service.ImageServiceImpl;
-import com.imgur.imgurservice.util.JwtTokenManager;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.util.List;
 
 /**
  * Controller for managing image-related operations.
  * Provides endpoints for uploading, deleting, and viewing images.
+ * Every endpoint requires a bearer token; the caller is resolved by {@code JwtAuthenticationFilter}.
  */
 @Slf4j
 @RestController
 @RequestMapping("/images")
+@SecurityRequirement(name = AppConfig.BEARER_AUTH)
 @Tag(name = "Image Management", description = "APIs for managing image uploads, deletion, and retrieval")
 public class ImageController {
 
     @Autowired
     private ImageServiceImpl imgService;
 
-    @Autowired
-    private JwtTokenManager jwtTokenManager;
-
     /**
      * Uploads an image and associates it with the authenticated user.
+     * The upload runs as a background job whose progress can be polled.
      *
      * @param file        the image file to upload
-     * @param accessToken the JWT token for authentication
-     * @return the uploaded image's details
+     * @param user        the authenticated caller
+     * @return the queued upload job
      */
     @PostMapping
     @Operation(
             summary = "Upload Image",
-            description = "Uploads an image and associates it with the authenticated user.",
+            description = "Queues an image upload for the authenticated user and returns a job that can be polled.",
             responses = {
-                    @ApiResponse(responseCode = "201", description = "Image uploaded successfully",
-                            content = @Content(schema = @Schema(implementation = String.class))),
+                    @ApiResponse(responseCode = "201", description = "Image upload queued",
+                            content = @Content(schema = @Schema(implementation = UploadJobResponse.class))),
                     @ApiResponse(responseCode = "400", description = "Invalid file or token",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "429", description = "Upload queue is full, retry after the Retry-After delay",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "500", description = "Internal server error",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
             }
     )
-    public ResponseEntity<String> uploadImage(
+    public ResponseEntity<UploadJobResponse> uploadImage(
             @RequestParam("file") MultipartFile file,
-            @RequestHeader("Authorization") String accessToken) {
-        String username = getUsernameFromToken(accessToken);
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        String username = user.username();
         log.info("Uploading image for user: {}", username);
 
         if (file == null || file.isEmpty()) {
@@ -66,17 +81,81 @@ public class ImageController {
             throw new InvalidImageException("File is invalid or empty.");
         }
 
-        ImageResponse imageResponse = imgService.uploadAndSaveImage(file, username);
-        log.info("Image uploaded successfully for user: {}", username);
+        UploadJobResponse job = imgService.uploadAndSaveImage(file, username);
+        log.info("Image upload queued as job {} for user: {}", job.getJobId(), username);
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/jobs/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.created(location).body(job);
+    }
+
+    /**
+     * Uploads several images in one request and reports the outcome of each.
+     *
+     * @param files       the image files to upload
+     * @param user        the authenticated caller
+     * @return the per-file results, in request order
+     */
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Upload Images",
+            description = "Uploads several images for the authenticated user in parallel and reports the outcome of each file.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch processed; see each item's status",
+                            content = @Content(schema = @Schema(implementation = BatchUploadResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "No files, too many files or invalid token",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "429", description = "Upload limit reached, retry after the Retry-After delay",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    public ResponseEntity<BatchUploadResponse> uploadImages(
+            @RequestParam("files") List<MultipartFile> files,
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        String username = user.username();
+        log.info("Uploading batch of {} images for user: {}", files.size(), username);
+
+        BatchUploadResponse response = imgService.uploadAndSaveImages(files, username);
+        log.info("Batch upload for user {}: {} uploaded, {} deduplicated, {} failed", username,
+                response.getUploaded(), response.getDeduplicated(), response.getFailed());
 
-        return ResponseEntity.created(null).body("Image upload is in progress and will be completed shortly.");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Retrieves the status of an upload job submitted by the authenticated user.
+     *
+     * @param jobId       the ID of the upload job
+     * @param user        the authenticated caller
+     * @return the current state of the job
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(
+            summary = "Get Upload Job",
+            description = "Retrieves the status of an upload job submitted by the authenticated user.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Upload job found",
+                            content = @Content(schema = @Schema(implementation = UploadJobResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Upload job not found",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    public ResponseEntity<UploadJobResponse> getUploadJob(
+            @PathVariable String jobId,
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        String username = user.username();
+        return ResponseEntity.ok(imgService.getUploadJob(jobId, username));
     }
 
     /**
      * Deletes an image by its ID for the authenticated user.
      *
      * @param imageId     the ID of the image to delete
-     * @param accessToken the JWT token for authentication
+     * @param user        the authenticated caller
      * @return a success message
      */
     @DeleteMapping("/{imageId}")
@@ -95,8 +174,8 @@ public class ImageController {
     )
     public ResponseEntity<String> deleteImage(
             @PathVariable String imageId,
-            @RequestHeader("Authorization") String accessToken) {
-        String username = getUsernameFromToken(accessToken);
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        String username = user.username();
         log.info("Deleting image with ID: {} for user: {}", imageId, username);
 
         imgService.deleteImage(imageId, username);
@@ -106,51 +185,116 @@ public class ImageController {
     }
 
     /**
-     * Retrieves all images for the authenticated user.
+     * Deletes several images of the authenticated user at once, or all of them.
+     *
+     * @param request     the IDs of the images to delete; ignored when {@code all} is set
+     * @param all         whether to delete every image of the user
+     * @param user        the authenticated caller
+     * @return the number of images deleted and the IDs that were not found
+     */
+    @DeleteMapping
+    @Operation(
+            summary = "Delete Images",
+            description = "Deletes the listed images of the authenticated user, or all of them with all=true. "
+                    + "Copies on Imgur are removed in the background.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Images deleted",
+                            content = @Content(schema = @Schema(implementation = BulkDeleteResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "No or too many image IDs",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    public ResponseEntity<BulkDeleteResponse> deleteImages(
+            @RequestBody(required = false) BulkDeleteRequest request,
+            @RequestParam(value = "all", defaultValue = "false") boolean all,
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        String username = user.username();
+
+        BulkDeleteResponse response = all
+                ? imgService.deleteAllImages(username)
+                : imgService.deleteImages(request != null ? request.getImageIds() : null, username);
+        log.info("Deleted {} images for user: {}", response.getDeleted(), username);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Retrieves one page of the authenticated user's images.
      *
      * @param username    the username whose images are to be retrieved
-     * @param accessToken the JWT token for authentication
-     * @return a list of image responses
+     * @param cursor      the {@code nextCursor} of the previous page; omit for the first page
+     * @param limit       the page size; omit for the default
+     * @param user        the authenticated caller
+     * @return the images on the page and the cursor of the next one
      */
     @GetMapping("/user/{username}")
     @Operation(
             summary = "Get User Images",
-            description = "Retrieves all images for the authenticated user.",
+            description = "Retrieves the authenticated user's images one page at a time, ordered by ID. "
+                    + "Pass the returned nextCursor to fetch the following page; it is null on the last page.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Images retrieved successfully",
-                            content = @Content(schema = @Schema(implementation = List.class))),
+                            content = @Content(schema = @Schema(implementation = ImagePageResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "403", description = "Access denied",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "500", description = "Internal server error",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
             }
     )
-    public ResponseEntity<List<ImageResponse>> getImagesForUser(
+    public ResponseEntity<ImagePageResponse> getImagesForUser(
             @PathVariable String username,
-            @RequestHeader("Authorization") String accessToken) {
-        String authenticatedUsername = getUsernameFromToken(accessToken);
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        String authenticatedUsername = user.username();
         if (!authenticatedUsername.equals(username)) {
             log.error("Access denied for user: {} to fetch images of: {}", authenticatedUsername, username);
             throw new IllegalStateException("Access denied.");
         }
 
-        List<ImageResponse> userImages = imgService.getImagesByUsername(username);
+        ImagePageResponse page = imgService.getImagesByUsername(username, cursor, limit);
         log.info("Retrieved images for user: {}", username);
 
-        return ResponseEntity.ok(userImages);
+        return ResponseEntity.ok(page);
     }
 
     /**
-     * Extracts the username from a valid JWT token.
+     * Streams all images of the authenticated user as one JSON array.
+     * Suited to accounts with many images: the list is written out row by row instead of being built
+     * in memory first.
      *
-     * @param accessToken the JWT token
-     * @return the extracted username
+     * @param username    the username whose images are to be retrieved
+     * @param user        the authenticated caller
+     * @return the images, written as they are read
      */
-    private String getUsernameFromToken(String accessToken) {
-        if (accessToken.startsWith("Bearer ")) {
-            accessToken = accessToken.substring(7);
+    @GetMapping(value = "/user/{username}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Stream User Images",
+            description = "Streams every image of the authenticated user as one JSON array, ordered by ID.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Images streamed",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ImageResponse.class)))),
+                    @ApiResponse(responseCode = "403", description = "Access denied",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "User not found",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> streamImagesForUser(
+            @PathVariable String username,
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        String authenticatedUsername = user.username();
+        if (!authenticatedUsername.equals(username)) {
+            log.error("Access denied for user: {} to stream images of: {}", authenticatedUsername, username);
+            throw new IllegalStateException("Access denied.");
         }
-        jwtTokenManager.validateToken(accessToken);
-        return jwtTokenManager.extractUsername(accessToken);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(imgService.streamImagesByUsername(username));
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,22 @@
 package com.imgur.imgurservice.controller;
 
+import com.imgur.imgurservice.config.AppConfig;
+import com.imgur.imgurservice.exception.AccessDeniedException;
 import com.imgur.imgurservice.exception.ErrorResponse;
 import com.imgur.imgurservice.model.Authentication.AuthenticationRequest;
 import com.imgur.imgurservice.model.Authentication.JwtResponse;
+import com.imgur.imgurservice.model.AuthenticatedUser;
 import com.imgur.imgurservice.model.UserRequest;
 import com.imgur.imgurservice.model.UserResponse;
 import com.imgur.imgurservice.service.UserServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +30,7 @@ import java.util.List;
 /**
  * Controller for managing user-related operations.
  * Provides endpoints for user registration, login, retrieval, and image association.
+ * Registration and login are open; the other endpoints require a bearer token, checked by {@code JwtAuthenticationFilter}.
  */
 @RestController
 @RequestMapping("/users")
@@ -62,6 +69,7 @@ public class UserController {
      * Authenticates a user and generates a JWT token.
      *
      * @param authenticationRequest the user's login credentials
+     * @param request               the HTTP request, for the client address
      * @return an authentication response containing the JWT token
      */
     @PostMapping("/login")
@@ -72,11 +80,15 @@ public class UserController {
                     @ApiResponse(responseCode = "200", description = "Authentication successful",
                             content = @Content(schema = @Schema(implementation = JwtResponse.class))),
                     @ApiResponse(responseCode = "401", description = "Invalid credentials",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "429", description = "Too many failed attempts or login capacity reached, retry after the Retry-After delay",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
             }
     )
-    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody AuthenticationRequest authenticationRequest) {
-        JwtResponse accessToken = userService.authorizeUser(authenticationRequest.getUsername(), authenticationRequest.getPassword());
+    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody AuthenticationRequest authenticationRequest,
+                                                        HttpServletRequest request) {
+        JwtResponse accessToken = userService.authorizeUser(authenticationRequest.getUsername(),
+                authenticationRequest.getPassword(), request.getRemoteAddr());
         log.info("User {} authenticated successfully", authenticationRequest.getUsername());
         return new ResponseEntity<>(accessToken, HttpStatus.OK);
     }
@@ -88,6 +100,7 @@ public class UserController {
      * @return the user's details
      */
     @GetMapping("/{username}")
+    @SecurityRequirement(name = AppConfig.BEARER_AUTH)
     @Operation(
             summary = "Get User by Username",
             description = "Retrieves basic information of a user by their username.",
@@ -109,19 +122,30 @@ public class UserController {
      *
      * @param username the username of the user to update
      * @param imageIds the list of image IDs to associate with the user
+     * @param user     the authenticated caller, who must be the user being updated
      * @return a success message
      */
     @PutMapping("/{username}/images")
+    @SecurityRequirement(name = AppConfig.BEARER_AUTH)
     @Operation(
             summary = "Associate Images with User",
             description = "Associates a list of image IDs with the specified user's profile.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Images associated successfully"),
+                    @ApiResponse(responseCode = "401", description = "Missing or invalid token, or another user's profile",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404", description = "User not found",
                             content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
             }
     )
-    public ResponseEntity<String> associateImagesWithUser(@PathVariable String username, @RequestBody List<String> imageIds) {
+    public ResponseEntity<String> associateImagesWithUser(
+            @PathVariable String username,
+            @RequestBody List<String> imageIds,
+            @Parameter(hidden = true) @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+        if (!user.username().equals(username)) {
+            log.error("Access denied for user: {} to update images of: {}", user.username(), username);
+            throw new AccessDeniedException("Access denied.");
+        }
         userService.updateUserImages(username, imageIds);
         log.info("Updated images for user: {}", username);
         return new ResponseEntity<>("Images updated successfully for user: " + username, HttpStatus.OK);
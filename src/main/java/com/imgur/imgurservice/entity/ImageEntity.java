@@ -14,6 +14,11 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_image_content_hash", columnList = "contentHash"),
+        @Index(name = "idx_image_user_id_id", columnList = "user_id, id"),
+        @Index(name = "idx_image_delete_hash", columnList = "deleteHash")
+})
 public class ImageEntity {
 
     /**
@@ -39,6 +44,14 @@ public class ImageEntity {
     @NotNull(message = "Delete hash cannot be null")
     private String deleteHash;
 
+    /**
+     * Hex-encoded SHA-256 of the image content, used to recognise re-uploads of the same bytes.
+     * Rows with the same hash share one Imgur image; it is only deleted from Imgur with the last of them.
+     * Null for images stored before hashing was introduced.
+     */
+    @Column(length = 64)
+    private String contentHash;
+
     /**
      * The user who owns this image.
      * Establishes a many-to-one relationship with the User entity.
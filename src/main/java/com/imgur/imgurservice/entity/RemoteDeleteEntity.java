@@ -0,0 +1,89 @@
+package com.imgur.imgurservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing an Imgur image waiting to be deleted: the outbox of remote deletes.
+ * A row is written in the same transaction that removes the last image row referencing it, or that
+ * gives up on an upload whose row was never saved, so no Imgur copy is left without a record.
+ * The delete relay claims due rows, calls Imgur, and removes them once Imgur confirms; failed deletes
+ * stay and are retried with backoff.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_remote_delete_next_attempt", columnList = "nextAttemptAt"),
+        @Index(name = "idx_remote_delete_claim_token", columnList = "claimToken")
+})
+public class RemoteDeleteEntity implements Persistable<String> {
+
+    /**
+     * Delete hash of the Imgur image.
+     */
+    @Id
+    private String deleteHash;
+
+    /**
+     * Number of failed delete attempts so far.
+     */
+    private int attempts;
+
+    /**
+     * Reason the last attempt failed.
+     */
+    @Column(length = 1024)
+    private String lastError;
+
+    private Instant createdAt;
+
+    /**
+     * When the delete is due, or when the claim of the relay sending it lapses; null once retries have
+     * been given up.
+     */
+    private Instant nextAttemptAt;
+
+    /**
+     * Token of the relay pass that last claimed the delete.
+     */
+    @Column(length = 36)
+    private String claimToken;
+
+    /**
+     * Whether the row has been read from or written to the database. New rows are inserted straight
+     * away rather than looked up first, as their key is assigned by the application.
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private boolean stored;
+
+    public RemoteDeleteEntity(String deleteHash, Instant createdAt) {
+        this.deleteHash = deleteHash;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return deleteHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
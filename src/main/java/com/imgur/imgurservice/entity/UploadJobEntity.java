@@ -0,0 +1,113 @@
+package com.imgur.imgurservice.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing the UploadJob table in the database.
+ * Each row tracks one image upload from the moment it is accepted until it completes or fails,
+ * so that uploads survive restarts and can be polled by the client.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_upload_job_status_updated", columnList = "status, updatedAt"),
+        @Index(name = "idx_upload_job_claim_token", columnList = "claimToken")
+})
+public class UploadJobEntity {
+
+    /**
+     * Primary key for the UploadJob entity, returned to the client as the job ID.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    /**
+     * Username of the user who submitted the upload.
+     */
+    @Column(nullable = false)
+    @NotNull(message = "Username cannot be null")
+    private String username;
+
+    /**
+     * Current state of the job.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UploadJobStatus status;
+
+    /**
+     * Original filename of the uploaded part.
+     */
+    private String originalFilename;
+
+    /**
+     * Location of the spooled image on disk, cleared once the job reaches a terminal state.
+     */
+    @Column(length = 1024)
+    private String spoolPath;
+
+    /**
+     * Size of the uploaded image in bytes.
+     */
+    private long contentLength;
+
+    /**
+     * Hex-encoded SHA-256 of the uploaded image, computed while spooling.
+     */
+    @Column(length = 64)
+    private String contentHash;
+
+    /**
+     * ID of the saved image once the job has completed.
+     */
+    private String imageId;
+
+    /**
+     * Imgur URL of the image once the job has completed.
+     */
+    private String imageUrl;
+
+    /**
+     * Delete hash of the image once Imgur has accepted it, recorded before the image row is saved so
+     * that an upload interrupted in between can still be removed from Imgur.
+     */
+    private String deleteHash;
+
+    /**
+     * Identifies the worker's claim while the job is processing; updates made under a lost claim are ignored.
+     */
+    @Column(length = 36)
+    private String claimToken;
+
+    /**
+     * When the worker's claim lapses unless it renews it; a lapsed job is picked up by the recovery sweep.
+     */
+    private Instant leaseUntil;
+
+    /**
+     * Reason for the failure when the job has failed.
+     */
+    @Column(length = 1024)
+    private String errorMessage;
+
+    /**
+     * Time the job was accepted.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Time of the last status change.
+     */
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.imgur.imgurservice.entity;
+
+/**
+ * Lifecycle states of an asynchronous image upload job.
+ */
+public enum UploadJobStatus {
+
+    /**
+     * The job has been persisted and is waiting for a worker.
+     */
+    PENDING,
+
+    /**
+     * A worker has claimed the job and is uploading the image.
+     */
+    PROCESSING,
+
+    /**
+     * The image was uploaded to Imgur and its metadata saved.
+     */
+    COMPLETED,
+
+    /**
+     * The upload failed; see the job's error message for details.
+     */
+    FAILED
+}
@@ -2,6 +2,8 @@ package com.imgur.imgurservice.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -54,6 +56,34 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND, "Image not found");
     }
 
+    /**
+     * Handles exceptions when an uploaded file or image request is invalid.
+     */
+    @ExceptionHandler(InvalidImageException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImageException(InvalidImageException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST, "Invalid image request");
+    }
+
+    /**
+     * Handles exceptions when an upload job is not found for the requesting user.
+     */
+    @ExceptionHandler(UploadJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleUploadJobNotFoundException(UploadJobNotFoundException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND, "Upload job not found");
+    }
+
+    /**
+     * Handles exceptions when the service is at capacity, telling the client when to retry.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex) {
+        logger.warn("Rejecting request: {}", ex.getMessage());
+        ResponseEntity<ErrorResponse> response = buildErrorResponse(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS, "Too many requests");
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
     /**
      * Handles validation errors for request bodies.
      */
@@ -67,6 +97,16 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(errorMessage, HttpStatus.BAD_REQUEST, "Validation error");
     }
 
+    /**
+     * Handles values the database rejects, such as an ID that is not a well-formed UUID when keys are
+     * stored as native UUIDs. The database's message is logged rather than returned.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        logger.warn("Rejected by the database: {}", ex.getMostSpecificCause().getMessage());
+        return buildErrorResponse("The request contains a value the store cannot accept", HttpStatus.BAD_REQUEST, "Invalid request");
+    }
+
     /**
      * Handles uncaught runtime exceptions.
      */
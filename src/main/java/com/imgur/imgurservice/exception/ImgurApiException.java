@@ -0,0 +1,57 @@
+package com.imgur.imgurservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Custom exception thrown when a call to the Imgur API fails or returns an unexpected status.
+ */
+@Getter
+public class ImgurApiException extends RuntimeException {
+
+    /**
+     * HTTP status returned by Imgur, or 0 if no response was received.
+     */
+    private final int statusCode;
+
+    /**
+     * Delay requested by Imgur through the Retry-After header, in milliseconds, or null if none was sent.
+     */
+    private final Long retryAfterMs;
+
+    /**
+     * Constructs a new ImgurApiException with the specified detail message and status.
+     *
+     * @param message    the detail message providing context about the exception
+     * @param statusCode the HTTP status returned by Imgur, or 0 if no response was received
+     */
+    public ImgurApiException(String message, int statusCode) {
+        this(message, statusCode, null);
+    }
+
+    /**
+     * Constructs a new ImgurApiException with the specified detail message, status and retry hint.
+     *
+     * @param message      the detail message providing context about the exception
+     * @param statusCode   the HTTP status returned by Imgur, or 0 if no response was received
+     * @param retryAfterMs the delay requested by Imgur before retrying, or null if none was sent
+     */
+    public ImgurApiException(String message, int statusCode, Long retryAfterMs) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    /**
+     * @return true if Imgur answered, but with a status worth retrying (429 or 5xx)
+     */
+    public boolean isRetryableResponse() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * @return true if no response was received (connection failure or timeout)
+     */
+    public boolean isTransportFailure() {
+        return statusCode == 0;
+    }
+}
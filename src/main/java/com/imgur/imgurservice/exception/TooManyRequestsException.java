@@ -0,0 +1,26 @@
+package com.imgur.imgurservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Custom exception thrown when the service is at capacity and the client should retry later.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * Number of seconds the client should wait before retrying.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new TooManyRequestsException with the specified detail message and retry hint.
+     *
+     * @param message           the detail message providing context about the exception
+     * @param retryAfterSeconds the number of seconds the client should wait before retrying
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
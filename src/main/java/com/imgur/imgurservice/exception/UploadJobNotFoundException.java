@@ -0,0 +1,16 @@
+package com.imgur.imgurservice.exception;
+
+/**
+ * Custom exception thrown when an upload job is not found for the requesting user.
+ */
+public class UploadJobNotFoundException extends RuntimeException {
+
+    /**
+     * Constructs a new UploadJobNotFoundException with the specified detail message.
+     *
+     * @param message the detail message providing context about the exception
+     */
+    public UploadJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.imgur.imgurservice.model;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * The caller of a request, as established by its bearer token.
+ * Set once per request by the authentication filter and read by controllers through
+ * {@code @RequestAttribute(AuthenticatedUser.ATTRIBUTE)}.
+ *
+ * @param username  the subject of the token
+ * @param expiresAt when the token expires
+ */
+public record AuthenticatedUser(String username, Instant expiresAt) implements Principal {
+
+    /**
+     * Request attribute under which the authenticated user is stored.
+     */
+    public static final String ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,46 @@
+package com.imgur.imgurservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result for one file of a batch upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadItemResponse {
+
+    /**
+     * Position of the file in the request, starting at 0.
+     */
+    private int index;
+
+    /**
+     * Original filename of the uploaded part.
+     */
+    private String filename;
+
+    /**
+     * Outcome for this file.
+     */
+    private BatchUploadStatus status;
+
+    /**
+     * The ID of the stored image, unless the file failed.
+     */
+    private String imageId;
+
+    /**
+     * The Imgur URL of the image, unless the file failed.
+     */
+    private String imageUrl;
+
+    /**
+     * The failure reason, set when the file failed.
+     */
+    private String errorMessage;
+}
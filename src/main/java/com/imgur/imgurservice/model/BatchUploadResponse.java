@@ -0,0 +1,38 @@
+package com.imgur.imgurservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response object for a batch upload, reporting the outcome of every file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResponse {
+
+    /**
+     * Number of files uploaded to Imgur.
+     */
+    private int uploaded;
+
+    /**
+     * Number of files that reused an already stored image.
+     */
+    private int deduplicated;
+
+    /**
+     * Number of files that could not be stored.
+     */
+    private int failed;
+
+    /**
+     * Per-file results, in request order.
+     */
+    private List<BatchUploadItemResponse> items;
+}
@@ -0,0 +1,22 @@
+package com.imgur.imgurservice.model;
+
+/**
+ * Outcome of a single file in a batch upload.
+ */
+public enum BatchUploadStatus {
+
+    /**
+     * The file was uploaded to Imgur and saved.
+     */
+    UPLOADED,
+
+    /**
+     * The same content was already stored, so the existing Imgur image was reused without an upload.
+     */
+    DEDUPLICATED,
+
+    /**
+     * The file could not be stored; see the item's error message.
+     */
+    FAILED
+}
@@ -0,0 +1,21 @@
+package com.imgur.imgurservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request object listing the images to delete in one call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+
+    /**
+     * IDs of the images to delete.
+     */
+    private List<String> imageIds;
+}
@@ -0,0 +1,28 @@
+package com.imgur.imgurservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response object for a bulk delete.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResponse {
+
+    /**
+     * Number of images removed. Their copies on Imgur are deleted in the background.
+     */
+    private int deleted;
+
+    /**
+     * Requested IDs that do not exist or belong to another user.
+     */
+    private List<String> notFound;
+}
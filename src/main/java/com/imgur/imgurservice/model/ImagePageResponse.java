@@ -0,0 +1,29 @@
+package com.imgur.imgurservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Response object for one page of a user's images.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePageResponse implements Serializable {
+
+    /**
+     * The images on this page, ordered by ID.
+     */
+    private List<ImageResponse> images;
+
+    /**
+     * Opaque token to pass as {@code cursor} to fetch the next page; null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,48 @@
+package com.imgur.imgurservice.model;
+
+import com.imgur.imgurservice.entity.UploadJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response object describing the state of an asynchronous upload job.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadJobResponse {
+
+    /**
+     * The ID used to poll the job.
+     */
+    private String jobId;
+
+    /**
+     * The current state of the job.
+     */
+    private UploadJobStatus status;
+
+    /**
+     * The ID of the stored image, set once the job has completed.
+     */
+    private String imageId;
+
+    /**
+     * The Imgur URL of the image, set once the job has completed.
+     */
+    private String imageUrl;
+
+    /**
+     * The failure reason, set when the job has failed.
+     */
+    private String errorMessage;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
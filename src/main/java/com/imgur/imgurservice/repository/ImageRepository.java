@@ -1,12 +1,22 @@
 package com.imgur.imgurservice.repository;
 
 import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.model.ImageResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for performing database operations on the Image entity.
@@ -15,6 +25,11 @@ import java.util.List;
 @Transactional(isolation = Isolation.READ_COMMITTED)
 public interface ImageRepository extends JpaRepository<ImageEntity, String> {
 
+    /**
+     * Rows fetched per round trip by {@link #streamByUserId(String)}.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
     /**
      * Finds all images associated with a specific user by the user's ID.
      *
@@ -23,6 +38,51 @@ public interface ImageRepository extends JpaRepository<ImageEntity, String> {
      */
     List<ImageEntity> findByUserId(String userId);
 
+    /**
+     * Finds the first page of a user's images, ordered by ID.
+     * Selects only the columns of {@link ImageResponse} and resolves the user in the same statement,
+     * so neither the image entities nor their owner are loaded.
+     *
+     * @param username the username of the user
+     * @param limit    the maximum number of images to return
+     * @return the user's images with the lowest IDs; empty if the user has none or does not exist
+     */
+    @Query("select new com.imgur.imgurservice.model.ImageResponse(i.id, i.imageUrl) "
+            + "from ImageEntity i join i.user u where u.username = :username order by i.id")
+    List<ImageResponse> findPageByUsername(@Param("username") String username, Limit limit);
+
+    /**
+     * Finds the next page of a user's images after the given ID, ordered by ID.
+     * Seeks on the (user_id, id) index instead of skipping rows, so deep pages cost the same as the first.
+     *
+     * @param username the username of the user
+     * @param afterId  the ID of the last image on the previous page
+     * @param limit    the maximum number of images to return
+     * @return the user's images with IDs greater than {@code afterId}
+     */
+    @Query("select new com.imgur.imgurservice.model.ImageResponse(i.id, i.imageUrl) "
+            + "from ImageEntity i join i.user u where u.username = :username and i.id > :afterId order by i.id")
+    List<ImageResponse> findPageByUsernameAfter(@Param("username") String username, @Param("afterId") String afterId,
+                                                Limit limit);
+
+    /**
+     * Streams a user's images, ordered by ID, straight into responses.
+     * The rows are read with a forward-only cursor {@value #STREAM_FETCH_SIZE} at a time and are never
+     * attached to the persistence context, so memory stays flat however many images the user has.
+     * Must be called within a transaction, and the stream must be closed.
+     *
+     * @param userId the ID of the user
+     * @return the user's images
+     */
+    @Query("select new com.imgur.imgurservice.model.ImageResponse(i.id, i.imageUrl) "
+            + "from ImageEntity i where i.user.id = :userId order by i.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ImageResponse> streamByUserId(@Param("userId") String userId);
+
     /**
      * Finds all ImageEntity objects with IDs in the specified list.
      *
@@ -31,5 +91,39 @@ public interface ImageRepository extends JpaRepository<ImageEntity, String> {
      */
     List<ImageEntity> findAllByIdIn(List<String> ids);
 
+    /**
+     * Finds the given user's image with the given content.
+     *
+     * @param contentHash hex-encoded SHA-256 of the image content
+     * @param userId      the ID of the user
+     * @return the user's image with that content, if any
+     */
+    Optional<ImageEntity> findFirstByContentHashAndUserId(String contentHash, String userId);
+
+    /**
+     * Finds any image with the given content.
+     *
+     * @param contentHash hex-encoded SHA-256 of the image content
+     * @return an image with that content, if any
+     */
+    Optional<ImageEntity> findFirstByContentHash(String contentHash);
+
+    /**
+     * Finds all images whose content matches any of the given hashes.
+     *
+     * @param contentHashes hex-encoded SHA-256 hashes
+     * @return the matching images
+     */
+    List<ImageEntity> findAllByContentHashIn(Collection<String> contentHashes);
+
+    /**
+     * Returns which of the given Imgur images are still referenced by at least one row.
+     *
+     * @param deleteHashes the Imgur delete hashes to check
+     * @return the delete hashes still in use
+     */
+    @Query("select distinct i.deleteHash from ImageEntity i where i.deleteHash in :deleteHashes")
+    List<String> findReferencedDeleteHashes(@Param("deleteHashes") Collection<String> deleteHashes);
+
     // Additional custom query methods can be added here as needed.
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.imgur.imgurservice.repository;
+
+import com.imgur.imgurservice.entity.RemoteDeleteEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for performing database operations on the RemoteDelete entity.
+ */
+@Repository
+@Transactional(isolation = Isolation.READ_COMMITTED)
+public interface RemoteDeleteRepository extends JpaRepository<RemoteDeleteEntity, String> {
+
+    /**
+     * Finds remote deletes that are due, oldest first.
+     *
+     * @param now      deletes scheduled before this instant are returned
+     * @param pageable limits the number of rows returned
+     * @return the deletes to send
+     */
+    List<RemoteDeleteEntity> findByNextAttemptAtBeforeOrderByNextAttemptAt(Instant now, Pageable pageable);
+
+    /**
+     * Claims the given remote deletes that are due, so that only one relay pass sends each of them.
+     * A claim lapses at {@code leaseUntil}, after which the delete is due again.
+     *
+     * @param deleteHashes the deletes to claim
+     * @param now          only deletes due at this instant are claimed
+     * @param leaseUntil   when the claim lapses
+     * @param claimToken   token identifying the claiming pass
+     * @return the number of deletes claimed
+     */
+    @Modifying
+    @Query("update RemoteDeleteEntity r set r.claimToken = :claimToken, r.nextAttemptAt = :leaseUntil " +
+            "where r.deleteHash in :deleteHashes and r.nextAttemptAt <= :now")
+    int claim(@Param("deleteHashes") Collection<String> deleteHashes,
+              @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil,
+              @Param("claimToken") String claimToken);
+
+    /**
+     * Finds the delete hashes claimed by a relay pass.
+     *
+     * @param claimToken the token the pass claimed them with
+     * @return the claimed delete hashes
+     */
+    @Query("select r.deleteHash from RemoteDeleteEntity r where r.claimToken = :claimToken")
+    List<String> findDeleteHashesByClaimToken(@Param("claimToken") String claimToken);
+}
@@ -0,0 +1,169 @@
+package com.imgur.imgurservice.repository;
+
+import com.imgur.imgurservice.entity.UploadJobEntity;
+import com.imgur.imgurservice.entity.UploadJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for performing database operations on the UploadJob entity.
+ */
+@Repository
+@Transactional(isolation = Isolation.READ_COMMITTED)
+public interface UploadJobRepository extends JpaRepository<UploadJobEntity, String> {
+
+    /**
+     * Finds a job by its ID, restricted to the user who submitted it.
+     *
+     * @param id       the job ID
+     * @param username the username of the submitting user
+     * @return an Optional containing the job if found, or empty otherwise
+     */
+    Optional<UploadJobEntity> findByIdAndUsername(String id, String username);
+
+    /**
+     * Finds the IDs of jobs in the given state that have not changed since the given time, oldest first.
+     *
+     * @param status   the job status to match
+     * @param before   only jobs last updated before this instant are returned
+     * @param pageable limits the number of IDs returned
+     * @return the matching job IDs
+     */
+    @Query("select j.id from UploadJobEntity j where j.status = :status and j.updatedAt < :before order by j.createdAt")
+    List<String> findIdsByStatusUpdatedBefore(@Param("status") UploadJobStatus status,
+                                              @Param("before") Instant before,
+                                              Pageable pageable);
+
+    /**
+     * Atomically claims a pending job for one worker, so that it is never processed twice.
+     * The claim is held under a lease that the worker renews while it runs the job.
+     *
+     * @param id          the job ID
+     * @param claimToken  identifies this claim in the worker's later updates
+     * @param now         the update timestamp
+     * @param leaseUntil  when the claim lapses unless it is renewed
+     * @return 1 if the job was claimed, 0 if it was not pending
+     */
+    @Modifying
+    @Query("update UploadJobEntity j set j.status = com.imgur.imgurservice.entity.UploadJobStatus.PROCESSING, " +
+            "j.claimToken = :claimToken, j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "where j.id = :id and j.status = com.imgur.imgurservice.entity.UploadJobStatus.PENDING")
+    int claim(@Param("id") String id,
+              @Param("claimToken") String claimToken,
+              @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Extends the leases of claims that are still held.
+     *
+     * @param claimTokens the claims to renew
+     * @param leaseUntil  the new end of their leases
+     * @return the number of claims renewed
+     */
+    @Modifying
+    @Query("update UploadJobEntity j set j.leaseUntil = :leaseUntil " +
+            "where j.claimToken in :claimTokens and j.status = com.imgur.imgurservice.entity.UploadJobStatus.PROCESSING")
+    int renewLeases(@Param("claimTokens") Collection<String> claimTokens, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Records the Imgur image of a job as soon as Imgur has accepted it, if the claim is still held.
+     *
+     * @param id         the job ID
+     * @param claimToken the claim under which the job was uploaded
+     * @param imageUrl   the Imgur URL of the image
+     * @param deleteHash the delete hash of the image
+     * @param now        the update timestamp
+     * @return 1 if the job was updated, 0 if the claim was lost or the job no longer exists
+     */
+    @Modifying
+    @Query("update UploadJobEntity j set j.imageUrl = :imageUrl, j.deleteHash = :deleteHash, j.updatedAt = :now " +
+            "where j.id = :id and j.claimToken = :claimToken " +
+            "and j.status = com.imgur.imgurservice.entity.UploadJobStatus.PROCESSING")
+    int recordUpload(@Param("id") String id,
+                     @Param("claimToken") String claimToken,
+                     @Param("imageUrl") String imageUrl,
+                     @Param("deleteHash") String deleteHash,
+                     @Param("now") Instant now);
+
+    /**
+     * Moves a processing job to a terminal state and releases its claim, if the claim is still held.
+     * A null claim token matches jobs claimed before claims were recorded.
+     *
+     * @param id           the job ID
+     * @param claimToken   the claim the job is held under
+     * @param status       the terminal status
+     * @param imageId      the ID of the saved image, if the job completed
+     * @param imageUrl     the Imgur URL of the image, if known
+     * @param errorMessage the reason for the failure, if the job failed
+     * @param now          the update timestamp
+     * @return 1 if the job was settled, 0 if the claim was lost
+     */
+    @Modifying
+    @Query("update UploadJobEntity j set j.status = :status, j.imageId = :imageId, j.imageUrl = :imageUrl, " +
+            "j.errorMessage = :errorMessage, j.spoolPath = null, j.claimToken = null, j.leaseUntil = null, " +
+            "j.updatedAt = :now " +
+            "where j.id = :id and j.status = com.imgur.imgurservice.entity.UploadJobStatus.PROCESSING " +
+            "and (j.claimToken = :claimToken or (:claimToken is null and j.claimToken is null))")
+    int settle(@Param("id") String id,
+               @Param("claimToken") String claimToken,
+               @Param("status") UploadJobStatus status,
+               @Param("imageId") String imageId,
+               @Param("imageUrl") String imageUrl,
+               @Param("errorMessage") String errorMessage,
+               @Param("now") Instant now);
+
+    /**
+     * Finds jobs stuck in PROCESSING after their image reached Imgur, i.e. interrupted before the
+     * image row was saved, whose claim has lapsed.
+     * Jobs claimed before leases were recorded count as lapsed once untouched since {@code before}.
+     *
+     * @param now      claims whose lease ended before this instant have lapsed
+     * @param before   the cut-off for jobs without a lease
+     * @param pageable limits the number of jobs returned
+     * @return the interrupted jobs
+     */
+    @Query("select j from UploadJobEntity j where j.status = com.imgur.imgurservice.entity.UploadJobStatus.PROCESSING " +
+            "and j.deleteHash is not null " +
+            "and (j.leaseUntil < :now or (j.leaseUntil is null and j.updatedAt < :before)) order by j.updatedAt")
+    List<UploadJobEntity> findInterruptedUploads(@Param("now") Instant now, @Param("before") Instant before,
+                                                 Pageable pageable);
+
+    /**
+     * Returns jobs whose claim lapsed in PROCESSING (for example after a crash) to PENDING so they are
+     * picked up again. A worker that is still running keeps renewing its lease and is never requeued.
+     * Jobs whose image already reached Imgur are left to {@link #findInterruptedUploads} rather than
+     * uploaded a second time.
+     *
+     * @param now    claims whose lease ended before this instant are released
+     * @param before the cut-off for jobs without a lease
+     * @return the number of jobs reset
+     */
+    @Modifying
+    @Query("update UploadJobEntity j set j.status = com.imgur.imgurservice.entity.UploadJobStatus.PENDING, " +
+            "j.claimToken = null, j.leaseUntil = null, j.updatedAt = :now " +
+            "where j.status = com.imgur.imgurservice.entity.UploadJobStatus.PROCESSING and j.deleteHash is null " +
+            "and (j.leaseUntil < :now or (j.leaseUntil is null and j.updatedAt < :before))")
+    int requeueLapsedClaims(@Param("now") Instant now, @Param("before") Instant before);
+
+    /**
+     * Returns those of the given spool paths that still back a pending or running job.
+     *
+     * @param spoolPaths the spooled files to check
+     * @return the paths in use
+     */
+    @Query("select j.spoolPath from UploadJobEntity j where j.spoolPath in :spoolPaths " +
+            "and j.status in (com.imgur.imgurservice.entity.UploadJobStatus.PENDING, " +
+            "com.imgur.imgurservice.entity.UploadJobStatus.PROCESSING)")
+    List<String> findSpoolPathsInUse(@Param("spoolPaths") Collection<String> spoolPaths);
+}
@@ -23,5 +23,13 @@ public interface UserRepository extends JpaRepository<UserEntity, String> {
      */
     Optional<UserEntity> findByUsername(String username);
 
+    /**
+     * Checks whether a user exists without loading it.
+     *
+     * @param username the username of the user
+     * @return true if a user with that username exists
+     */
+    boolean existsByUsername(String username);
+
     // Additional query methods can be added as needed.
 }
\ No newline at end of file
@@ -0,0 +1,284 @@
+package com.imgur.imgurservice.service;
+
+import com.imgur.imgurservice.client.ImgurClient;
+import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.entity.RemoteDeleteEntity;
+import com.imgur.imgurservice.exception.ImgurApiException;
+import com.imgur.imgurservice.repository.ImageRepository;
+import com.imgur.imgurservice.repository.RemoteDeleteRepository;
+import com.imgur.imgurservice.util.Futures;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Deletes images in bulk, through an outbox of remote deletes.
+ * Database rows are removed in batched {@code DELETE ... WHERE id IN (...)} statements, and in the same
+ * transaction a {@link RemoteDeleteEntity} row is written for every Imgur image no other row shares, so
+ * a crash can never leave an Imgur copy without a record of it.
+ * After the commit the delete hashes are queued; a flush drains the queue every few hundred milliseconds,
+ * claims the rows and sends the Imgur deletes concurrently, paced by the Imgur client's delete bulkhead
+ * and rate limiter. Rows are removed once Imgur confirms, so every delete is sent until it succeeds;
+ * Imgur answering 404 counts as success, which makes sending one twice harmless.
+ * A slower sweep relays whatever the queue missed (rows of a previous run, overflow, lapsed claims)
+ * and retries failed deletes with backoff.
+ */
+@Slf4j
+@Component
+public class ImageDeletePipeline {
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(6);
+
+    private final ImgurClient imgurClient;
+    private final ImageRepository imageRepository;
+    private final RemoteDeleteRepository remoteDeleteRepository;
+    private final ResourceLimiter databaseLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor deleteTaskExecutor;
+    private final BlockingQueue<String> pending;
+
+    /**
+     * Maximum IDs per DELETE statement.
+     */
+    @Value("${imgur.delete.db-batch-size:500}")
+    private int dbBatchSize;
+
+    /**
+     * Maximum Imgur deletes started by one flush or sweep.
+     */
+    @Value("${imgur.delete.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    /**
+     * Delay before the first retry of a failed remote delete; doubled on every further failure.
+     */
+    @Value("${imgur.delete.retry-delay-ms:60000}")
+    private long retryDelayMs;
+
+    @Value("${imgur.delete.max-attempts:10}")
+    private int maxAttempts;
+
+    /**
+     * How long a claimed delete is left to its relay pass before another one may send it.
+     */
+    @Value("${imgur.delete.claim-lease-ms:120000}")
+    private long claimLeaseMs;
+
+    public ImageDeletePipeline(ImgurClient imgurClient, ImageRepository imageRepository,
+                               RemoteDeleteRepository remoteDeleteRepository,
+                               @Qualifier("databaseLimiter") ResourceLimiter databaseLimiter,
+                               TransactionTemplate transactionTemplate,
+                               @Qualifier("deleteTaskExecutor") Executor deleteTaskExecutor,
+                               @Value("${imgur.delete.queue-capacity:10000}") int queueCapacity,
+                               MeterRegistry meterRegistry) {
+        this.imgurClient = imgurClient;
+        this.imageRepository = imageRepository;
+        this.remoteDeleteRepository = remoteDeleteRepository;
+        this.databaseLimiter = databaseLimiter;
+        this.transactionTemplate = transactionTemplate;
+        this.deleteTaskExecutor = deleteTaskExecutor;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+        Gauge.builder("imgur.delete.pending", pending, BlockingQueue::size)
+                .description("Committed Imgur deletes waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Removes the given images from the database in one transaction, together with the outbox rows of
+     * their Imgur copies, and queues those for deletion.
+     *
+     * @param images the images to remove; ownership must already have been checked
+     */
+    public void remove(List<ImageEntity> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        List<String> ids = images.stream().map(ImageEntity::getId).toList();
+        Set<String> deleteHashes = new LinkedHashSet<>(images.stream().map(ImageEntity::getDeleteHash).toList());
+        databaseLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < ids.size(); from += dbBatchSize) {
+                imageRepository.deleteAllByIdInBatch(ids.subList(from, Math.min(ids.size(), from + dbBatchSize)));
+            }
+            discard(deleteHashes);
+        }));
+        log.info("Removed {} images, their Imgur copies are queued for deletion", ids.size());
+    }
+
+    /**
+     * Writes outbox rows for Imgur images that no image row references, in the caller's transaction,
+     * and queues them once it commits. Images still shared by a row are kept, and images already in the
+     * outbox are left to their existing row.
+     *
+     * @param deleteHashes the delete hashes of the images
+     */
+    public void discard(Collection<String> deleteHashes) {
+        if (deleteHashes.isEmpty()) {
+            return;
+        }
+        Collection<String> referenced = imageRepository.findReferencedDeleteHashes(List.copyOf(deleteHashes));
+        Set<String> existing = new LinkedHashSet<>();
+        remoteDeleteRepository.findAllById(deleteHashes).forEach(entry -> existing.add(entry.getDeleteHash()));
+        Instant now = Instant.now();
+        List<RemoteDeleteEntity> entries = deleteHashes.stream()
+                .distinct()
+                .filter(deleteHash -> !referenced.contains(deleteHash) && !existing.contains(deleteHash))
+                .map(deleteHash -> new RemoteDeleteEntity(deleteHash, now))
+                .toList();
+        remoteDeleteRepository.saveAll(entries);
+        afterCommit(() -> entries.forEach(entry -> enqueue(entry.getDeleteHash())));
+    }
+
+    /**
+     * Sends the queued Imgur deletes.
+     */
+    @Scheduled(fixedDelayString = "${imgur.delete.flush-interval-ms:200}")
+    public void flush() {
+        List<String> drained = new ArrayList<>();
+        pending.drainTo(drained, flushBatchSize);
+        if (!drained.isEmpty()) {
+            deleteRemote(claim(new LinkedHashSet<>(drained)));
+        }
+    }
+
+    /**
+     * Sends the deletes in the outbox that are due: retries of failed ones, and any the queue missed.
+     */
+    @Scheduled(initialDelayString = "${imgur.delete.retry-interval-ms:60000}",
+            fixedDelayString = "${imgur.delete.retry-interval-ms:60000}")
+    public void retryFailed() {
+        List<RemoteDeleteEntity> due = databaseLimiter.call(() ->
+                remoteDeleteRepository.findByNextAttemptAtBeforeOrderByNextAttemptAt(Instant.now(), PageRequest.of(0, flushBatchSize)));
+        if (!due.isEmpty()) {
+            Set<String> claimed = claim(due.stream().map(RemoteDeleteEntity::getDeleteHash).toList());
+            log.info("Relaying {} due Imgur deletes", claimed.size());
+            deleteRemote(claimed);
+        }
+    }
+
+    private void enqueue(String deleteHash) {
+        if (!pending.offer(deleteHash)) {
+            log.debug("Delete queue full, Imgur image {} is left to the outbox sweep", deleteHash);
+        }
+    }
+
+    /**
+     * Claims the given outbox rows for this pass, skipping those already claimed by another pass or
+     * already settled.
+     *
+     * @return the delete hashes claimed
+     */
+    private Set<String> claim(Collection<String> deleteHashes) {
+        String claimToken = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        return databaseLimiter.call(() -> transactionTemplate.execute(status ->
+                remoteDeleteRepository.claim(deleteHashes, now, now.plusMillis(claimLeaseMs), claimToken) == 0
+                        ? new LinkedHashSet<>()
+                        : new LinkedHashSet<>(remoteDeleteRepository.findDeleteHashesByClaimToken(claimToken))));
+    }
+
+    /**
+     * Starts the Imgur deletes for the given images.
+     *
+     * @param deleteHashes the claimed images to delete, without duplicates
+     */
+    private void deleteRemote(Set<String> deleteHashes) {
+        if (deleteHashes.isEmpty()) {
+            return;
+        }
+        // Images shared again by another row since they were queued stay on Imgur
+        Collection<String> referenced = databaseLimiter.call(() -> imageRepository.findReferencedDeleteHashes(List.copyOf(deleteHashes)));
+        deleteHashes.removeAll(referenced);
+        referenced.forEach(this::forget);
+
+        for (String deleteHash : deleteHashes) {
+            CompletableFuture<Void> delete;
+            try {
+                delete = imgurClient.deleteAsync(deleteHash);
+            } catch (RuntimeException e) {
+                delete = CompletableFuture.failedFuture(e);
+            }
+            delete.whenCompleteAsync((ignored, error) -> {
+                Throwable cause = error != null ? Futures.unwrap(error) : null;
+                // A 404 means the image is already gone
+                if (cause == null || cause instanceof ImgurApiException e && e.getStatusCode() == 404) {
+                    forget(deleteHash);
+                } else {
+                    recordFailure(deleteHash, cause.getMessage());
+                }
+            }, this::runOnDeleteExecutor);
+        }
+    }
+
+    private void forget(String deleteHash) {
+        databaseLimiter.run(() -> remoteDeleteRepository.deleteById(deleteHash));
+    }
+
+    private void recordFailure(String deleteHash, String reason) {
+        databaseLimiter.run(() -> {
+            Instant now = Instant.now();
+            RemoteDeleteEntity failed = remoteDeleteRepository.findById(deleteHash)
+                    .orElseGet(() -> new RemoteDeleteEntity(deleteHash, now));
+            failed.setAttempts(failed.getAttempts() + 1);
+            failed.setClaimToken(null);
+            failed.setLastError(reason);
+            if (failed.getAttempts() >= maxAttempts) {
+                failed.setNextAttemptAt(null);
+                log.error("Giving up deleting Imgur image {} after {} attempts: {}", deleteHash, failed.getAttempts(), reason);
+            } else {
+                long delayMs = Math.min(MAX_RETRY_DELAY.toMillis(), retryDelayMs << Math.min(20, failed.getAttempts() - 1));
+                failed.setNextAttemptAt(now.plusMillis(delayMs));
+                log.warn("Imgur delete of {} failed (attempt {}), retrying in {} ms: {}", deleteHash,
+                        failed.getAttempts(), delayMs, reason);
+            }
+            remoteDeleteRepository.save(failed);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Bookkeeping after an Imgur call touches the database, so it runs on the delete executor rather
+     * than on the HTTP client's threads; when that pool is full it runs on the calling thread.
+     */
+    private void runOnDeleteExecutor(Runnable command) {
+        try {
+            deleteTaskExecutor.execute(command);
+        } catch (RejectedExecutionException e) {
+            command.run();
+        }
+    }
+}
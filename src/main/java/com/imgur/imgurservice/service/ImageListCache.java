@@ -0,0 +1,382 @@
+package com.imgur.imgurservice.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.imgur.imgurservice.model.ImagePageResponse;
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.util.TwoTierCache;
+import com.imgur.imgurservice.util.TwoTierCacheManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Caches pages of the users' image lists in "imagesByUser".
+ * Pages are keyset pages ordered by ID: the page after cursor {@code c} holds the IDs in {@code (c, last]},
+ * where {@code last} is the ID its next cursor points at, or every ID after {@code c} on the last page.
+ * An added or deleted image therefore only changes the pages whose range covers its ID, at most one per
+ * page size; every later page starts after a cursor that is still valid and stays as it is.
+ * <p>
+ * Each user has an index in Redis of the pages cached for them and their ranges. Once an upload or delete
+ * commits, only the indexed pages whose range covers a changed ID are touched: a deleted image is dropped
+ * from its page, an added one is inserted when it lands on a last page with room, and any other affected
+ * page is evicted for the next read to reload. A page is indexed before it is loaded, as covering
+ * everything after its cursor, so a change that commits while the page is loading evicts it and the
+ * stale load is not cached. Every pass over the index increments a per-user change counter; a pass that
+ * finds the counter moved by another writer evicts the pages it patched rather than risk overwriting their
+ * change, and a pass that fails retires all of the user's pages instead.
+ * <p>
+ * Retiring all pages uses a per-user list version, kept as a counter in Redis and part of every page key:
+ * once it is incremented, later reads look for pages under the new version and the old pages are never
+ * served again and simply expire. It is used when the change is as large as the account (all images
+ * deleted, images re-assigned between users). The version counters do not expire; one that reset could
+ * bring back a page cached under an old version. If the version cannot be read, pages are loaded straight
+ * from the database.
+ * Each replica keeps the versions it has read in process, so a page served from the local cache tier
+ * costs no Redis round trip. A bump is announced on the cache invalidation channel and the other
+ * replicas drop their copy of that version; should a message be lost, the copy expires after
+ * {@code cache.image.version.ttl} milliseconds.
+ * Changes are also reported to {@link ReadYourWrites} and pages are loaded through it, so with a
+ * read replica a list that just changed is read from the primary and the change shows up at once.
+ */
+@Slf4j
+@Component
+public class ImageListCache {
+
+    static final String CACHE_NAME = "imagesByUser";
+
+    /**
+     * Name under which version changes are published on the invalidation channel.
+     */
+    static final String VERSIONS = "imagesByUser:versions";
+
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ReadYourWrites readYourWrites;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> versions;
+
+    @Value("${cache.image.version-key-prefix:imagesByUser:version:}")
+    private String versionKeyPrefix;
+
+    @Value("${cache.image.page-index-key-prefix:imagesByUser:pages:}")
+    private String pageIndexKeyPrefix;
+
+    @Value("${cache.image.change-key-prefix:imagesByUser:changes:}")
+    private String changeKeyPrefix;
+
+    /**
+     * Lifetime of a user's page index and change counter; matches the Redis TTL of the pages.
+     */
+    @Value("${cache.image.redis.ttl:3600000}")
+    private long pageTtlMs;
+
+    /**
+     * The IDs a cached page covers: those after {@code afterId} up to and including {@code throughId}.
+     *
+     * @param afterId   the ID the page starts after, or null for the first page
+     * @param throughId the ID the page's next cursor points at, or null for the last page
+     * @param limit     the page size
+     */
+    record PageRange(String afterId, String throughId, int limit) implements Serializable {
+
+        boolean covers(String imageId) {
+            return (afterId == null || imageId.compareTo(afterId) > 0)
+                    && (throughId == null || imageId.compareTo(throughId) <= 0);
+        }
+    }
+
+    /**
+     * Carries a page whose index entry could not be written, so it is returned without being cached.
+     */
+    private static final class UnindexedPageException extends RuntimeException {
+
+        private final transient ImagePageResponse page;
+
+        UnindexedPageException(ImagePageResponse page) {
+            super("Image page not indexed", null, false, false);
+            this.page = page;
+        }
+    }
+
+    public ImageListCache(CacheManager cacheManager, RedisTemplate<String, Object> redisTemplate,
+                          ReadYourWrites readYourWrites,
+                          @Value("${cache.image.version.size:50000}") long versionCacheSize,
+                          @Value("${cache.image.version.ttl:60000}") long versionCacheTtlMs) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.readYourWrites = readYourWrites;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(versionCacheSize)
+                .expireAfterWrite(Duration.ofMillis(versionCacheTtlMs))
+                .build();
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            twoTierCacheManager.addInvalidationListener(VERSIONS, username -> {
+                if (username == null) {
+                    versions.invalidateAll();
+                } else {
+                    versions.invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns a page of the user's images from the cache, loading it on a miss.
+     * Concurrent misses for the same page run one load between them.
+     *
+     * @param username the owner of the images
+     * @param cursor   the cursor the page starts after, or null for the first page
+     * @param afterId  the image ID the cursor points at, or null for the first page
+     * @param limit    the page size
+     * @param loader   loads the page from the database in a read-only transaction
+     * @return the page
+     */
+    public ImagePageResponse getPage(String username, String cursor, String afterId, int limit,
+                                     Supplier<ImagePageResponse> loader) {
+        Supplier<ImagePageResponse> read = () -> readYourWrites.read(username, loader);
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Long version = version(username);
+        if (cache == null || version == null) {
+            return read.get();
+        }
+        // The username goes last: cursors are Base64url and cannot contain the separator, usernames can
+        String key = version + ":" + limit + ":" + (cursor != null ? cursor : "") + ":" + username;
+        try {
+            return cache.get(key, () -> {
+                // Indexed as covering everything after the cursor until its real range is known
+                boolean indexed = index(username, key, new PageRange(afterId, null, limit));
+                ImagePageResponse page = read.get();
+                List<ImageResponse> images = page.getImages();
+                String throughId = page.getNextCursor() != null && !images.isEmpty()
+                        ? images.get(images.size() - 1).getImageId() : null;
+                if (!indexed || !index(username, key, new PageRange(afterId, throughId, limit))) {
+                    throw new UnindexedPageException(page);
+                }
+                return page;
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof UnindexedPageException unindexed) {
+                return unindexed.page;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Adds newly saved images to the cached pages of their owner that cover them, once the change commits.
+     *
+     * @param username the owner of the images
+     * @param images   the saved images
+     */
+    public void added(String username, List<ImageResponse> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        readYourWrites.wrote(List.of(username));
+        afterCommit(() -> patch(username, images, Set.of()));
+    }
+
+    /**
+     * Removes deleted images from the cached pages of their owner that cover them, once the change commits.
+     *
+     * @param username the owner of the images
+     * @param imageIds the IDs of the deleted images
+     */
+    public void removed(String username, Collection<String> imageIds) {
+        if (imageIds.isEmpty()) {
+            return;
+        }
+        Set<String> ids = Set.copyOf(imageIds);
+        readYourWrites.wrote(List.of(username));
+        afterCommit(() -> patch(username, List.of(), ids));
+    }
+
+    /**
+     * Retires all cached pages of a user whose images changed wholesale, once the change commits.
+     *
+     * @param username the owner of the images
+     */
+    public void changed(String username) {
+        changed(List.of(username));
+    }
+
+    /**
+     * Retires all cached pages of users whose images changed wholesale, once the change commits.
+     *
+     * @param usernames the owners of the images
+     */
+    public void changed(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return;
+        }
+        // Marked first, so no page under the new version is loaded from a replica that lags behind
+        readYourWrites.wrote(usernames);
+        afterCommit(() -> usernames.forEach(this::bumpVersion));
+    }
+
+    /**
+     * Applies a committed change to the user's indexed pages that cover it.
+     */
+    private void patch(String username, List<ImageResponse> added, Set<String> removedIds) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        String indexKey = pageIndexKeyPrefix + username;
+        String changeKey = changeKeyPrefix + username;
+        List<String> touched = new ArrayList<>();
+        try {
+            Object before = redisTemplate.opsForValue().get(changeKey);
+            Map<Object, Object> pages = redisTemplate.opsForHash().entries(indexKey);
+            for (Map.Entry<Object, Object> entry : pages.entrySet()) {
+                if (!(entry.getKey() instanceof String key) || !(entry.getValue() instanceof PageRange range)) {
+                    continue;
+                }
+                List<ImageResponse> addedHere = added.stream().filter(image -> range.covers(image.getImageId())).toList();
+                boolean removedHere = removedIds.stream().anyMatch(range::covers);
+                if (addedHere.isEmpty() && !removedHere) {
+                    continue;
+                }
+                touched.add(key);
+                // Read the shared copy; the local one may still miss another replica's patch
+                if (cache instanceof TwoTierCache twoTierCache) {
+                    twoTierCache.evictLocal(key);
+                }
+                ImagePageResponse cached = cache.get(key, ImagePageResponse.class);
+                ImagePageResponse patched = cached != null ? patched(cached, range, addedHere, removedIds) : null;
+                if (patched != null) {
+                    if (!patched.equals(cached)) {
+                        cache.put(key, patched);
+                    }
+                } else {
+                    // Not cached (possibly still loading) or not patchable: the next read reloads it
+                    cache.evict(key);
+                    redisTemplate.opsForHash().delete(indexKey, key);
+                }
+            }
+
+            Long after = redisTemplate.opsForValue().increment(changeKey);
+            redisTemplate.expire(changeKey, Duration.ofMillis(pageTtlMs));
+            long expected = (before instanceof Number number ? number.longValue() : 0) + 1;
+            if (after == null || after != expected) {
+                log.debug("Image pages of {} changed concurrently, evicting the {} patched here", username, touched.size());
+                touched.forEach(cache::evict);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not patch cached image pages of {}, retiring them: {}", username, e.getMessage());
+            bumpVersion(username);
+        }
+    }
+
+    /**
+     * Applies a change to a cached page.
+     *
+     * @return the updated page, or null if it has to be reloaded instead
+     */
+    private static ImagePageResponse patched(ImagePageResponse page, PageRange range, List<ImageResponse> added,
+                                             Set<String> removedIds) {
+        List<ImageResponse> images = new ArrayList<>(page.getImages());
+        images.removeIf(image -> removedIds.contains(image.getImageId()));
+        if (!added.isEmpty()) {
+            // Inserting into a full or inner page would push an image over to the next page
+            if (range.throughId() != null) {
+                return null;
+            }
+            Set<String> present = new HashSet<>();
+            images.forEach(image -> present.add(image.getImageId()));
+            added.stream().filter(image -> present.add(image.getImageId())).forEach(images::add);
+            if (images.size() > range.limit()) {
+                return null;
+            }
+            images.sort(Comparator.comparing(ImageResponse::getImageId));
+        }
+        // An inner page that lost all its images would read as the end of the list
+        if (images.isEmpty() && page.getNextCursor() != null) {
+            return null;
+        }
+        return new ImagePageResponse(List.copyOf(images), page.getNextCursor());
+    }
+
+    /**
+     * Records a page and its range in the user's index.
+     *
+     * @return false if the entry could not be written, in which case the page must not be cached
+     */
+    private boolean index(String username, String key, PageRange range) {
+        String indexKey = pageIndexKeyPrefix + username;
+        try {
+            redisTemplate.opsForHash().put(indexKey, key, range);
+            redisTemplate.expire(indexKey, Duration.ofMillis(pageTtlMs));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not index cached image page of {}, serving it uncached: {}", username, e.getMessage());
+            return false;
+        }
+    }
+
+    private Long version(String username) {
+        try {
+            return versions.get(username, this::readVersion);
+        } catch (RuntimeException e) {
+            log.warn("Image list version of {} unavailable, reading from the database: {}", username, e.getMessage());
+            return null;
+        }
+    }
+
+    private Long readVersion(String username) {
+        Object version = redisTemplate.opsForValue().get(versionKeyPrefix + username);
+        return version instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private void bumpVersion(String username) {
+        try {
+            // Dropped before the bump, so pages indexed under the new version are never lost with it
+            redisTemplate.delete(pageIndexKeyPrefix + username);
+            Long version = redisTemplate.opsForValue().increment(versionKeyPrefix + username);
+            if (version != null) {
+                versions.put(username, version);
+            } else {
+                versions.invalidate(username);
+            }
+        } catch (RuntimeException e) {
+            versions.invalidate(username);
+            log.warn("Could not retire cached image pages of {}, they may be served until they expire: {}",
+                    username, e.getMessage());
+            return;
+        }
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            twoTierCacheManager.invalidate(VERSIONS, username);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.imgur.imgurservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.repository.ImageRepository;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes all of a user's images as one JSON array without holding the list in memory.
+ * Rows come from a forward-only database cursor inside a read-only transaction and each one is
+ * written out with a streaming JSON generator as soon as it is read, so memory per request stays flat
+ * and the first bytes leave before the last row is fetched.
+ * The database connection is held until the client has received everything, or until the async request
+ * times out; a database permit is held for as long, so slow clients cannot tie up more connections than the
+ * limiter allows.
+ * With a read replica the rows come from it, unless the user's images changed moments ago.
+ */
+@Slf4j
+@Component
+public class ImageListStreamer {
+
+    private final ImageRepository imageRepository;
+    private final ObjectMapper objectMapper;
+    private final ResourceLimiter databaseLimiter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Images written between flushes of the response.
+     */
+    @Value("${imgur.list.stream.flush-every:500}")
+    private int flushEvery;
+
+    public ImageListStreamer(ImageRepository imageRepository, ObjectMapper objectMapper,
+                             @Qualifier("databaseLimiter") ResourceLimiter databaseLimiter,
+                             PlatformTransactionManager transactionManager, ReadYourWrites readYourWrites) {
+        this.imageRepository = imageRepository;
+        this.objectMapper = objectMapper;
+        this.databaseLimiter = databaseLimiter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Writes the user's images, ordered by ID, as a JSON array of {@link ImageResponse}.
+     *
+     * @param username the username of the user
+     * @param userId   the ID of the user
+     * @param out      the response body; left open
+     * @throws IOException if the client goes away or the response cannot be written
+     */
+    public void write(String username, String userId, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)) {
+            generator.writeStartArray();
+            int written;
+            try {
+                written = readYourWrites.read(username, () -> databaseLimiter.call(
+                        () -> readOnlyTransaction.execute(status -> writeImages(userId, generator))));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            log.info("Streamed {} images of user {}", written, username);
+        }
+    }
+
+    private int writeImages(String userId, JsonGenerator generator) {
+        int written = 0;
+        try (Stream<ImageResponse> images = imageRepository.streamByUserId(userId)) {
+            Iterator<ImageResponse> iterator = images.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                if (++written % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return written;
+    }
+}
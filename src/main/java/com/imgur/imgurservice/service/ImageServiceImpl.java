@@ -1,32 +1,67 @@
 package com.imgur.imgurservice.service;
 
+import com.imgur.imgurservice.client.ImgurClient;
+import com.imgur.imgurservice.client.ImgurRateLimiter;
 import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.entity.UploadJobEntity;
+import com.imgur.imgurservice.entity.UploadJobStatus;
 import com.imgur.imgurservice.entity.UserEntity;
 import com.imgur.imgurservice.exception.AccessDeniedException;
 import com.imgur.imgurservice.exception.ImageNotFoundException;
+import com.imgur.imgurservice.exception.InvalidImageException;
+import com.imgur.imgurservice.exception.TooManyRequestsException;
+import com.imgur.imgurservice.exception.UploadJobNotFoundException;
 import com.imgur.imgurservice.exception.UsernameNotFoundException;
+import com.imgur.imgurservice.model.BatchUploadItemResponse;
+import com.imgur.imgurservice.model.BatchUploadResponse;
+import com.imgur.imgurservice.model.BatchUploadStatus;
+import com.imgur.imgurservice.model.BulkDeleteResponse;
+import com.imgur.imgurservice.model.ImagePageResponse;
 import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.model.UploadJobResponse;
 import com.imgur.imgurservice.model.Imgurmodel.ImgurData;
 import com.imgur.imgurservice.model.Imgurmodel.ImgurResponse;
 import com.imgur.imgurservice.repository.ImageRepository;
+import com.imgur.imgurservice.repository.UploadJobRepository;
 import com.imgur.imgurservice.repository.UserRepository;
+import com.imgur.imgurservice.util.Futures;
+import com.imgur.imgurservice.util.InFlightLimiter;
 import com.imgur.imgurservice.util.JwtTokenManager;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import com.imgur.imgurservice.util.UploadSpool;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Implementation of the ImgService interface for managing image-related operations.
@@ -35,71 +70,641 @@ import java.util.concurrent.CompletableFuture;
 @Slf4j
 public class ImageServiceImpl implements ImgService {
 
-    private final RestTemplate restTemplate;
+    private final ImgurClient imgurClient;
+    private final ImgurRateLimiter imgurRateLimiter;
     private final UserRepository userRepository;
     private final ImageRepository imageRepository;
+    private final UploadJobRepository uploadJobRepository;
     private final JwtTokenManager jwtTokenManager;
+    private final UploadSpool uploadSpool;
+    private final Executor taskExecutor;
+    private final Executor deleteTaskExecutor;
+    private final ResourceLimiter databaseLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor uploadContinuationExecutor;
+    private final ImageDeletePipeline imageDeletePipeline;
+    private final ImageListCache imageListCache;
+    private final ImageListStreamer imageListStreamer;
+    private final UploadMetrics uploadMetrics;
 
-    @Value("${imgur.uploadUrl}")
-    private String uploadUrl;
+    /**
+     * Claim tokens of the jobs this instance is running, by job ID; their leases are renewed until they settle.
+     */
+    private final Map<String, String> activeClaims = new ConcurrentHashMap<>();
+
+    @Value("${imgur.upload.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    @Value("${imgur.upload.jobs.stale-threshold-ms:300000}")
+    private long staleJobThresholdMs;
+
+    @Value("${imgur.upload.jobs.lease-ms:120000}")
+    private long claimLeaseMs;
+
+    @Value("${imgur.upload.jobs.recovery-batch-size:100}")
+    private int recoveryBatchSize;
+
+    @Value("${imgur.upload.spool.orphan-age-ms:3600000}")
+    private long spoolOrphanAgeMs;
 
-    @Value("${imgur.deleteUrl}")
-    private String deleteUrl;
+    @Value("${imgur.upload.batch.max-files:20}")
+    private int batchMaxFiles;
 
-    @Value("${imgur.clientId}")
-    private String clientId;
+    @Value("${imgur.upload.batch.concurrency:4}")
+    private int batchConcurrency;
 
-    public ImageServiceImpl(RestTemplate restTemplate, UserRepository userRepository,
-                            ImageRepository imageRepository, JwtTokenManager jwtTokenManager) {
-        this.restTemplate = restTemplate;
+    @Value("${imgur.delete.max-ids-per-request:1000}")
+    private int bulkDeleteMaxIds;
+
+    @Value("${imgur.list.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${imgur.list.max-page-size:200}")
+    private int maxPageSize;
+
+    public ImageServiceImpl(ImgurClient imgurClient, ImgurRateLimiter imgurRateLimiter, UserRepository userRepository,
+                            ImageRepository imageRepository, UploadJobRepository uploadJobRepository,
+                            JwtTokenManager jwtTokenManager, UploadSpool uploadSpool,
+                            @Qualifier("taskExecutor") Executor taskExecutor,
+                            @Qualifier("deleteTaskExecutor") Executor deleteTaskExecutor,
+                            @Qualifier("databaseLimiter") ResourceLimiter databaseLimiter,
+                            TransactionTemplate transactionTemplate, ImageDeletePipeline imageDeletePipeline,
+                            ImageListCache imageListCache, ImageListStreamer imageListStreamer,
+                            UploadMetrics uploadMetrics) {
+        this.imgurClient = imgurClient;
+        this.imgurRateLimiter = imgurRateLimiter;
         this.userRepository = userRepository;
         this.imageRepository = imageRepository;
+        this.uploadJobRepository = uploadJobRepository;
         this.jwtTokenManager = jwtTokenManager;
+        this.uploadSpool = uploadSpool;
+        this.taskExecutor = taskExecutor;
+        this.deleteTaskExecutor = deleteTaskExecutor;
+        this.databaseLimiter = databaseLimiter;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.uploadContinuationExecutor = callerRunsWhenRejected(taskExecutor);
+        this.imageDeletePipeline = imageDeletePipeline;
+        this.imageListCache = imageListCache;
+        this.imageListStreamer = imageListStreamer;
+        this.uploadMetrics = uploadMetrics;
     }
 
     /**
-     * Uploads and saves an image associated with a user.
+     * Accepts an image upload and queues it as a persistent job.
+     * Queued jobs are paced against Imgur's remaining credit; once it is exhausted new uploads are
+     * rejected with 429 until Imgur resets it. The image is added to the user's cached pages when the job completes.
      *
      * @param file     the image file to upload
      * @param username the username of the user uploading the image
-     * @return the image response containing the image ID and URL
+     * @return the queued job, whose ID can be polled for completion
      */
     @Override
-    @CacheEvict(value = "imagesByUser", key = "#username")
-    // Original synchronous method
-    public ImageResponse uploadAndSaveImage(MultipartFile file, String username) {
+    public UploadJobResponse uploadAndSaveImage(MultipartFile file, String username) {
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("Invalid or empty file");
         }
-        // Call the async method and return a placeholder response immediately
-        CompletableFuture.runAsync(() -> uploadAndSaveImageAsync(file, username));
-        return new ImageResponse("Upload in progress", "Please check after some time");
+
+        checkUploadCredit(username);
+
+        // Copy the part to the spool now; the container may discard it once this request completes
+        UploadSpool.SpooledFile spooled = uploadSpool.spool(file);
+
+        Instant now = Instant.now();
+        UploadJobEntity job = new UploadJobEntity();
+        job.setUsername(username);
+        job.setStatus(UploadJobStatus.PENDING);
+        job.setOriginalFilename(file.getOriginalFilename());
+        job.setSpoolPath(spooled.path().toString());
+        job.setContentLength(file.getSize());
+        job.setContentHash(spooled.contentHash());
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        try {
+            UploadJobEntity pending = job;
+            job = databaseLimiter.call(() -> uploadJobRepository.save(pending));
+        } catch (RuntimeException e) {
+            uploadSpool.release(spooled.path());
+            throw e;
+        }
+
+        String jobId = job.getId();
+        try {
+            dispatch(jobId);
+        } catch (RejectedExecutionException e) {
+            // The job was never accepted, so don't leave it behind for the recovery sweep
+            databaseLimiter.run(() -> uploadJobRepository.deleteById(jobId));
+            uploadSpool.release(spooled.path());
+            log.warn("Upload queue is full, rejecting upload for user: {}", username);
+            throw new TooManyRequestsException("Upload queue is full, please retry later", retryAfterSeconds);
+        }
+
+        log.info("Queued upload job {} for user: {}", jobId, username);
+        return toJobResponse(job);
     }
 
-    // Asynchronous upload and save method
-    @Async ("taskExecutor")
-    public void uploadAndSaveImageAsync(MultipartFile file, String username) {
+    /**
+     * Uploads several images in one request and waits for all of them.
+     * Parts are uploaded to Imgur in parallel, at most {@code imgur.upload.batch.concurrency} at a time;
+     * content that is already stored (or repeated within the batch) is reused instead of uploaded.
+     * All new rows are saved with a single saveAll in one transaction, after which they are added to the
+     * user's cached image pages.
+     *
+     * @param files    the image files to upload
+     * @param username the username of the user uploading the images
+     * @return the outcome of every file, in request order
+     */
+    @Override
+    public BatchUploadResponse uploadAndSaveImages(List<MultipartFile> files, String username) {
+        if (files == null || files.isEmpty()) {
+            throw new InvalidImageException("No files to upload");
+        }
+        if (files.size() > batchMaxFiles) {
+            throw new InvalidImageException("A batch may contain at most " + batchMaxFiles + " files");
+        }
+        checkUploadCredit(username);
+
+        UserEntity user = databaseLimiter.call(() -> userRepository.findByUsername(username))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        List<BatchEntry> entries = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            entries.add(new BatchEntry(i, files.get(i)));
+        }
+
         try {
-            // 1. Upload the file to Imgur
-            ImgurResponse response = uploadImg(file);
-            ImgurData imgurData = response.getData();
-            String imageUrl = imgurData.getLink();
-            String deleteHash = imgurData.getDeletehash();
-            // 2. Save the image details to the database
-            ImageEntity image = new ImageEntity();
-            image.setImageUrl(imageUrl);
-            image.setDeleteHash(deleteHash);
+            // 1. Spool every part, hashing it on the way
+            for (BatchEntry entry : entries) {
+                if (entry.file == null || entry.file.isEmpty()) {
+                    entry.fail("Invalid or empty file");
+                    continue;
+                }
+                try {
+                    entry.spooled = uploadSpool.spool(entry.file);
+                } catch (RuntimeException e) {
+                    entry.fail(e.getMessage());
+                }
+            }
 
-            UserEntity user = userRepository.findByUsername(username)
+            // 2. Look up content that is already stored, preferring the user's own copy
+            Set<String> hashes = new HashSet<>();
+            entries.stream().filter(entry -> entry.spooled != null).forEach(entry -> hashes.add(entry.spooled.contentHash()));
+            Map<String, ImageEntity> stored = new HashMap<>();
+            if (!hashes.isEmpty()) {
+                for (ImageEntity image : databaseLimiter.call(() -> imageRepository.findAllByContentHashIn(hashes))) {
+                    stored.merge(image.getContentHash(), image,
+                            (current, candidate) -> candidate.getUser().getId().equals(user.getId()) ? candidate : current);
+                }
+            }
+
+            // 3. Upload the remaining content to Imgur, at most batchConcurrency requests at a time
+            InFlightLimiter window = new InFlightLimiter("batch-upload", batchConcurrency, entries.size());
+            // Repeated content within the batch follows the first part with it, whether that part reuses or uploads
+            Map<String, BatchEntry> firstWith = new HashMap<>();
+            List<CompletableFuture<Void>> uploads = new ArrayList<>();
+            for (BatchEntry entry : entries) {
+                if (entry.spooled == null) {
+                    continue;
+                }
+                String contentHash = entry.spooled.contentHash();
+                ImageEntity existing = stored.get(contentHash);
+                if (firstWith.containsKey(contentHash)) {
+                    entry.sameAs = firstWith.get(contentHash);
+                } else if (existing != null) {
+                    firstWith.put(contentHash, entry);
+                    entry.status = BatchUploadStatus.DEDUPLICATED;
+                    entry.image = existing.getUser().getId().equals(user.getId())
+                            ? existing
+                            : newImage(existing.getImageUrl(), existing.getDeleteHash(), contentHash, user);
+                } else {
+                    firstWith.put(contentHash, entry);
+                    Resource resource = spooledResource(entry.spooled.path().toString(), entry.file.getOriginalFilename());
+                    uploads.add(window.submit(() -> imgurClient.uploadAsync(resource))
+                            .handle((response, error) -> {
+                                if (error == null) {
+                                    entry.status = BatchUploadStatus.UPLOADED;
+                                    entry.image = newImage(response.getData().getLink(), response.getData().getDeletehash(),
+                                            contentHash, user);
+                                } else {
+                                    entry.fail(Futures.unwrap(error).getMessage());
+                                }
+                                return null;
+                            }));
+                }
+            }
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+
+            // 4. Save every new row in one transaction
+            List<BatchEntry> toSave = entries.stream()
+                    .filter(entry -> entry.image != null && entry.image.getId() == null)
+                    .toList();
+            if (!toSave.isEmpty()) {
+                List<ImageEntity> images = toSave.stream().map(entry -> entry.image).toList();
+                try {
+                    databaseLimiter.call(() -> transactionTemplate.execute(status -> imageRepository.saveAll(images)));
+                    imageListCache.added(username, images.stream().map(ImageServiceImpl::toImageResponse).toList());
+                } catch (RuntimeException e) {
+                    log.error("Failed to save {} images of a batch for user {}: {}", images.size(), username, e.getMessage());
+                    discardUploads(toSave);
+                    toSave.forEach(entry -> entry.fail("Failed to save image metadata"));
+                }
+            }
+        } finally {
+            entries.stream().filter(entry -> entry.spooled != null).forEach(entry -> uploadSpool.release(entry.spooled.path()));
+        }
+
+        List<BatchUploadItemResponse> items = entries.stream().map(BatchEntry::toResponse).toList();
+        log.info("Batch upload of {} files finished for user: {}", items.size(), username);
+        return BatchUploadResponse.builder()
+                .uploaded(count(items, BatchUploadStatus.UPLOADED))
+                .deduplicated(count(items, BatchUploadStatus.DEDUPLICATED))
+                .failed(count(items, BatchUploadStatus.FAILED))
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Hands a job to the upload executor, timing how long it waits there for a worker.
+     *
+     * @throws RejectedExecutionException if the executor is full
+     */
+    private void dispatch(String jobId) {
+        long queuedAt = System.nanoTime();
+        taskExecutor.execute(() -> {
+            uploadMetrics.record(UploadMetrics.Stage.QUEUE, queuedAt, true);
+            uploadAndSaveImageAsync(jobId);
+        });
+    }
+
+    /**
+     * Runs a queued upload job: uploads the image to Imgur and saves its metadata.
+     * If an image with the same content is already stored, the job links to it instead and Imgur is
+     * not called at all.
+     * The worker thread is released while the Imgur request is in flight; the database work
+     * continues on a worker thread once the response arrives. An image that reaches Imgur but whose
+     * row cannot be saved is queued for deletion, so the job never leaves it behind.
+     * The job is claimed under a lease that {@link #renewClaims()} keeps extending while it runs, however
+     * long it waits for Imgur; should the lease lapse anyway and the job be recovered elsewhere, this run
+     * notices at its next update and stands down.
+     *
+     * @param jobId the ID of the job to run
+     * @return a future completing once the job has reached a terminal state
+     */
+    public CompletableFuture<Void> uploadAndSaveImageAsync(String jobId) {
+        // Claim the job first so a job dispatched twice (e.g. by the recovery sweep) is only processed once
+        String claimToken = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plusMillis(claimLeaseMs);
+        if (databaseLimiter.call(() -> uploadJobRepository.claim(jobId, claimToken, now, leaseUntil)) == 0) {
+            log.debug("Upload job {} already claimed, skipping", jobId);
+            return CompletableFuture.completedFuture(null);
+        }
+        UploadJobEntity job = databaseLimiter.call(() -> uploadJobRepository.findById(jobId)).orElse(null);
+        if (job == null) {
+            log.warn("Upload job {} disappeared before processing", jobId);
+            return CompletableFuture.completedFuture(null);
+        }
+        job.setClaimToken(claimToken);
+        activeClaims.put(jobId, claimToken);
+
+        CompletableFuture<ImageEntity> stored;
+        try {
+            // 1. Reuse an image with the same content if one is already stored
+            ImageEntity existing = reuseStoredImage(job);
+            if (existing != null) {
+                log.info("Upload job {} matches stored image {}, skipping Imgur", jobId, existing.getId());
+                stored = CompletableFuture.completedFuture(existing);
+            } else {
+                // 2. Upload the file to Imgur and record the image on the job; its row is saved when the job completes
+                long uploadStart = System.nanoTime();
+                stored = imgurClient.uploadAsync(spooledResource(job))
+                        .whenComplete((response, error) -> uploadMetrics.record(UploadMetrics.Stage.IMGUR, uploadStart, error == null))
+                        .thenApplyAsync(response -> recordUpload(job, response), uploadContinuationExecutor);
+            }
+        } catch (RuntimeException e) {
+            stored = CompletableFuture.failedFuture(e);
+        }
+
+        return stored
+                .handleAsync((saved, error) -> {
+                    try {
+                        finishJob(job, saved, error);
+                    } finally {
+                        activeClaims.remove(jobId, claimToken);
+                    }
+                    return null;
+                }, uploadContinuationExecutor);
+    }
+
+    /**
+     * Extends the leases of the jobs this instance is running, so the recovery sweep leaves them alone
+     * however long they wait in the Imgur bulkhead, for rate-limit credit or in retry backoff.
+     */
+    @Scheduled(initialDelayString = "${imgur.upload.jobs.heartbeat-interval-ms:30000}",
+            fixedDelayString = "${imgur.upload.jobs.heartbeat-interval-ms:30000}")
+    public void renewClaims() {
+        List<String> claimTokens = List.copyOf(activeClaims.values());
+        Instant leaseUntil = Instant.now().plusMillis(claimLeaseMs);
+        for (int from = 0; from < claimTokens.size(); from += recoveryBatchSize) {
+            List<String> chunk = claimTokens.subList(from, Math.min(claimTokens.size(), from + recoveryBatchSize));
+            try {
+                databaseLimiter.run(() -> uploadJobRepository.renewLeases(chunk, leaseUntil));
+            } catch (RuntimeException e) {
+                log.warn("Could not renew the leases of {} upload jobs: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Looks for an image with the job's content. The user's own copy is returned as is; another
+     * user's copy is shared through a new row that points at the same Imgur image, saved when the job completes.
+     *
+     * @return the image to complete the job with, or null if the content has not been stored yet
+     */
+    private ImageEntity reuseStoredImage(UploadJobEntity job) {
+        String contentHash = job.getContentHash();
+        if (contentHash == null) {
+            return null;
+        }
+        return databaseLimiter.call(() -> {
+            ImageEntity existing = imageRepository.findFirstByContentHash(contentHash).orElse(null);
+            if (existing == null) {
+                return null;
+            }
+            UserEntity user = userRepository.findByUsername(job.getUsername())
                     .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            if (existing.getUser().getId().equals(user.getId())) {
+                return existing;
+            }
+            Optional<ImageEntity> own = imageRepository.findFirstByContentHashAndUserId(contentHash, user.getId());
+            if (own.isPresent()) {
+                return own.get();
+            }
+
+            ImageEntity shared = new ImageEntity();
+            shared.setImageUrl(existing.getImageUrl());
+            shared.setDeleteHash(existing.getDeleteHash());
+            shared.setContentHash(contentHash);
+            shared.setUser(user);
+            return shared;
+        });
+    }
 
-            image.setUser(user);
-            imageRepository.save(image);
+    /**
+     * Records the image Imgur accepted on the job before its row is saved, so that it can still be
+     * deleted from Imgur if the job is interrupted in between. If the claim on the job was lost, the
+     * image is queued for deletion instead, since the job is now someone else's.
+     *
+     * @return the image, not saved yet
+     * @throws ClaimLostException if the claim on the job was lost
+     */
+    private ImageEntity recordUpload(UploadJobEntity job, ImgurResponse response) {
+        ImgurData imgurData = response.getData();
+        job.setImageUrl(imgurData.getLink());
+        job.setDeleteHash(imgurData.getDeletehash());
+        Integer recorded = databaseLimiter.call(() -> transactionTemplate.execute(status -> {
+            int updated = uploadJobRepository.recordUpload(job.getId(), job.getClaimToken(), imgurData.getLink(),
+                    imgurData.getDeletehash(), Instant.now());
+            if (updated == 0) {
+                imageDeletePipeline.discard(List.of(imgurData.getDeletehash()));
+            }
+            return updated;
+        }));
+        if (recorded == null || recorded == 0) {
+            throw new ClaimLostException(job.getId());
+        }
 
-            log.info("Image metadata saved for user: {}", username);
+        ImageEntity image = new ImageEntity();
+        image.setImageUrl(imgurData.getLink());
+        image.setDeleteHash(imgurData.getDeletehash());
+        image.setContentHash(job.getContentHash());
+        return image;
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to upload and save image: " + e.getMessage());
+    private ImageEntity saveImage(UploadJobEntity job, ImageEntity image) {
+        if (image.getUser() != null) {
+            return imageRepository.save(image);
+        }
+        long lookupStart = System.nanoTime();
+        Optional<UserEntity> found;
+        try {
+            found = userRepository.findByUsername(job.getUsername());
+        } catch (RuntimeException e) {
+            uploadMetrics.record(UploadMetrics.Stage.USER_LOOKUP, lookupStart, false);
+            throw e;
+        }
+        uploadMetrics.record(UploadMetrics.Stage.USER_LOOKUP, lookupStart, found.isPresent());
+        UserEntity user = found.orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        image.setUser(user);
+        return imageRepository.save(image);
+    }
+
+    /**
+     * Settles a job. A completed job is settled in the same transaction as its new image row, so an
+     * image on Imgur is always referenced by either a row or the job. A job whose claim was lost is left
+     * to whoever holds it now, spooled copy included.
+     */
+    private void finishJob(UploadJobEntity job, ImageEntity image, Throwable error) {
+        Path spooled = job.getSpoolPath() != null ? Paths.get(job.getSpoolPath()) : null;
+
+        Throwable cause = error != null ? Futures.unwrap(error) : null;
+        boolean settled = false;
+        if (cause == null) {
+            long saveStart = System.nanoTime();
+            try {
+                databaseLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                    ImageEntity saved = image.getId() != null ? image : saveImage(job, image);
+                    if (uploadJobRepository.settle(job.getId(), job.getClaimToken(), UploadJobStatus.COMPLETED,
+                            saved.getId(), saved.getImageUrl(), null, Instant.now()) == 0) {
+                        // Rolls back the new image row
+                        throw new ClaimLostException(job.getId());
+                    }
+                    job.setImageId(saved.getId());
+                    job.setImageUrl(saved.getImageUrl());
+                }));
+                uploadMetrics.record(UploadMetrics.Stage.DB_SAVE, saveStart, true);
+                settled = true;
+            } catch (RuntimeException e) {
+                uploadMetrics.record(UploadMetrics.Stage.DB_SAVE, saveStart, false);
+                cause = e;
+            }
+        }
+        if (settled) {
+            job.setStatus(UploadJobStatus.COMPLETED);
+            job.setSpoolPath(null);
+            long cacheStart = System.nanoTime();
+            try {
+                imageListCache.added(job.getUsername(), List.of(new ImageResponse(job.getImageId(), job.getImageUrl())));
+                uploadMetrics.record(UploadMetrics.Stage.CACHE, cacheStart, true);
+            } catch (RuntimeException e) {
+                uploadMetrics.record(UploadMetrics.Stage.CACHE, cacheStart, false);
+                log.warn("Could not update the cached image pages of user {}: {}", job.getUsername(), e.getMessage());
+            }
+            uploadMetrics.recordJob(job.getCreatedAt(), true);
+            log.info("Image metadata saved for user: {}", job.getUsername());
+        } else if (cause instanceof ClaimLostException) {
+            log.warn("Upload job {} lost its claim, leaving it to the recovery sweep", job.getId());
+        } else {
+            log.error("Failed to upload and save image for job {}: {}", job.getId(), cause.getMessage());
+            settled = failJob(job, cause.getMessage());
+        }
+
+        // The spooled copy is no longer needed once the job has settled; otherwise a retry may still need it
+        if (settled && spooled != null) {
+            uploadSpool.release(spooled);
+        }
+    }
+
+    /**
+     * Marks a job failed if its claim is still held. If its image reached Imgur without a row being saved,
+     * the outbox row that deletes it is written in the same transaction; should that fail, the job stays
+     * in PROCESSING and the reconciliation sweep tries again once its lease lapses.
+     *
+     * @return whether the job was settled
+     */
+    private boolean failJob(UploadJobEntity job, String reason) {
+        boolean settled = false;
+        try {
+            settled = Boolean.TRUE.equals(databaseLimiter.call(() -> transactionTemplate.execute(status -> {
+                if (uploadJobRepository.settle(job.getId(), job.getClaimToken(), UploadJobStatus.FAILED, null,
+                        job.getImageUrl(), reason, Instant.now()) == 0) {
+                    return false;
+                }
+                if (job.getDeleteHash() != null) {
+                    imageDeletePipeline.discard(List.of(job.getDeleteHash()));
+                }
+                return true;
+            })));
+            if (!settled) {
+                log.warn("Upload job {} lost its claim before its failure was recorded", job.getId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not record the failure of upload job {}: {}", job.getId(), e.getMessage());
+        }
+        if (settled) {
+            job.setStatus(UploadJobStatus.FAILED);
+            job.setErrorMessage(reason);
+            job.setSpoolPath(null);
+            uploadMetrics.recordJob(job.getCreatedAt(), false);
+        }
+        return settled;
+    }
+
+    /**
+     * Retrieves the state of an upload job submitted by the given user.
+     *
+     * @param jobId    the ID of the job
+     * @param username the username of the user who submitted it
+     * @return the job's current state
+     */
+    @Override
+    public UploadJobResponse getUploadJob(String jobId, String username) {
+        UploadJobEntity job = databaseLimiter.call(() -> uploadJobRepository.findByIdAndUsername(jobId, username))
+                .orElseThrow(() -> new UploadJobNotFoundException("Upload job not found"));
+        return toJobResponse(job);
+    }
+
+    /**
+     * Re-dispatches every pending job once the application has started, picking up uploads
+     * that were accepted before a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        recoverJobs(Instant.now());
+    }
+
+    /**
+     * Periodically re-dispatches jobs that have been waiting longer than the stale threshold,
+     * e.g. because the queue was full during recovery, and jobs whose worker died mid-upload and let
+     * its lease lapse.
+     */
+    @Scheduled(initialDelayString = "${imgur.upload.jobs.recovery-interval-ms:60000}",
+            fixedDelayString = "${imgur.upload.jobs.recovery-interval-ms:60000}")
+    public void sweepStaleJobs() {
+        recoverJobs(Instant.now().minusMillis(staleJobThresholdMs));
+    }
+
+    /**
+     * Removes spooled files that no pending or running job refers to, such as the parts of a batch cut short
+     * by a restart or files left by a job that settled but could not delete its copy. Only files older than
+     * the orphan age are considered, so parts whose job or batch is still being set up are left alone.
+     * Runs once at startup and then periodically; files are kept whenever their jobs cannot be checked.
+     */
+    @Scheduled(fixedDelayString = "${imgur.upload.spool.sweep-interval-ms:600000}")
+    public void sweepOrphanedSpoolFiles() {
+        List<Path> candidates = uploadSpool.filesOlderThan(Instant.now().minusMillis(spoolOrphanAgeMs));
+        int removed = 0;
+        for (int from = 0; from < candidates.size(); from += recoveryBatchSize) {
+            List<Path> chunk = candidates.subList(from, Math.min(candidates.size(), from + recoveryBatchSize));
+            Set<String> inUse;
+            try {
+                List<String> paths = chunk.stream().map(Path::toString).toList();
+                inUse = new HashSet<>(databaseLimiter.call(() -> uploadJobRepository.findSpoolPathsInUse(paths)));
+            } catch (RuntimeException e) {
+                log.warn("Could not check {} spooled files against their upload jobs: {}", chunk.size(), e.getMessage());
+                continue;
+            }
+            for (Path path : chunk) {
+                if (!inUse.contains(path.toString())) {
+                    uploadSpool.release(path);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.warn("Removed {} orphaned files from the upload spool", removed);
+        }
+    }
+
+    private void recoverJobs(Instant pendingBefore) {
+        Instant now = Instant.now();
+        Instant unleasedBefore = now.minusMillis(staleJobThresholdMs);
+        reconcileInterruptedUploads(now, unleasedBefore);
+        int requeued = databaseLimiter.call(() -> uploadJobRepository.requeueLapsedClaims(now, unleasedBefore));
+        if (requeued > 0) {
+            log.warn("Requeued {} upload jobs whose claim lapsed in processing", requeued);
+        }
+
+        List<String> jobIds = databaseLimiter.call(() -> uploadJobRepository.findIdsByStatusUpdatedBefore(
+                UploadJobStatus.PENDING, pendingBefore, PageRequest.of(0, recoveryBatchSize)));
+        int dispatched = 0;
+        for (String jobId : jobIds) {
+            try {
+                dispatch(jobId);
+                dispatched++;
+            } catch (RejectedExecutionException e) {
+                log.warn("Upload queue is full, {} pending jobs left for the next recovery sweep", jobIds.size() - dispatched);
+                break;
+            }
+        }
+        if (dispatched > 0) {
+            log.info("Re-dispatched {} pending upload jobs", dispatched);
+        }
+    }
+
+    /**
+     * Fails jobs that were interrupted after their image reached Imgur but before its row was saved,
+     * and queues those images for deletion. Uploading them again would only leave another copy behind.
+     * Only jobs whose claim has lapsed are touched; a worker still saving the image keeps its lease.
+     */
+    private void reconcileInterruptedUploads(Instant now, Instant unleasedBefore) {
+        List<UploadJobEntity> interrupted = databaseLimiter.call(() -> uploadJobRepository.findInterruptedUploads(
+                now, unleasedBefore, PageRequest.of(0, recoveryBatchSize)));
+        int failed = 0;
+        for (UploadJobEntity job : interrupted) {
+            Path spooled = job.getSpoolPath() != null ? Paths.get(job.getSpoolPath()) : null;
+            if (failJob(job, "Upload interrupted before the image was saved")) {
+                failed++;
+                if (spooled != null) {
+                    uploadSpool.release(spooled);
+                }
+            }
+        }
+        if (failed > 0) {
+            log.warn("Failed {} upload jobs interrupted after reaching Imgur, their images are queued for deletion", failed);
         }
     }
 
@@ -110,17 +715,20 @@ public class ImageServiceImpl implements ImgService {
      * @param username username of the user
      */
     @Override
-    @CacheEvict(value = "imagesByUser", key = "#username")
     public void deleteImage(String imageId, String username) {
-        CompletableFuture.runAsync(() -> deleteImageAsync(imageId, username));
+        try {
+            deleteTaskExecutor.execute(() -> deleteImageAsync(imageId, username));
+        } catch (RejectedExecutionException e) {
+            log.warn("Delete queue is full, rejecting delete of image {} for user: {}", imageId, username);
+            throw new TooManyRequestsException("Delete queue is full, please retry later", retryAfterSeconds);
+        }
     }
 
-    // Asynchronous delete method
-    @Async ("deleteTaskExecutor")
+    // Asynchronous delete method, run on the deleteTaskExecutor
     public void deleteImageAsync(String imageId, String username) {
         try {
 
-            ImageEntity image = imageRepository.findById(imageId)
+            ImageEntity image = databaseLimiter.call(() -> imageRepository.findById(imageId))
                     .orElseThrow(() -> new ImageNotFoundException("Image not found"));
 
             // Validate ownership
@@ -129,9 +737,9 @@ public class ImageServiceImpl implements ImgService {
                 throw new AccessDeniedException("You are not authorized to delete this image");
             }
 
-            // Perform deletion
-            deleteImageFromService(image.getDeleteHash());
-            imageRepository.delete(image);
+            // Remove the row now; the Imgur copy is deleted by the pipeline unless other rows still share it
+            imageDeletePipeline.remove(List.of(image));
+            imageListCache.removed(username, List.of(imageId));
             log.info("Image deleted successfully by user {}: {}", username, imageId);
 
         } catch (Exception e) {
@@ -140,27 +748,120 @@ public class ImageServiceImpl implements ImgService {
     }
 
     /**
-     * Retrieves all images for a user.
+     * Deletes several images of a user at once.
+     * Rows are removed in batched statements within one transaction and their Imgur copies are
+     * deleted in the background. IDs that do not exist or belong to someone else are reported back.
+     *
+     * @param imageIds the IDs of the images to delete
+     * @param username username of the user
+     * @return the number of images deleted and the IDs that were not found
+     */
+    @Override
+    public BulkDeleteResponse deleteImages(List<String> imageIds, String username) {
+        if (imageIds == null || imageIds.isEmpty()) {
+            throw new InvalidImageException("No image IDs to delete");
+        }
+        if (imageIds.size() > bulkDeleteMaxIds) {
+            throw new InvalidImageException("At most " + bulkDeleteMaxIds + " images can be deleted per request");
+        }
+        List<String> distinctIds = imageIds.stream().distinct().toList();
+        List<ImageEntity> owned = databaseLimiter.call(() -> imageRepository.findAllByIdIn(distinctIds)).stream()
+                .filter(image -> image.getUser().getUsername().equals(username))
+                .toList();
+        imageDeletePipeline.remove(owned);
+
+        Set<String> deleted = new HashSet<>();
+        owned.forEach(image -> deleted.add(image.getId()));
+        imageListCache.removed(username, deleted);
+        List<String> notFound = distinctIds.stream().filter(id -> !deleted.contains(id)).toList();
+        log.info("Bulk delete for user {}: {} deleted, {} not found", username, deleted.size(), notFound.size());
+        return BulkDeleteResponse.builder()
+                .deleted(deleted.size())
+                .notFound(notFound)
+                .build();
+    }
+
+    /**
+     * Deletes every image of a user.
+     *
+     * @param username username of the user
+     * @return the number of images deleted
+     */
+    @Override
+    public BulkDeleteResponse deleteAllImages(String username) {
+        List<ImageEntity> images = databaseLimiter.call(() -> {
+            UserEntity user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            return imageRepository.findByUserId(user.getId());
+        });
+        imageDeletePipeline.remove(images);
+        imageListCache.changed(username);
+        log.info("Deleted all {} images of user {}", images.size(), username);
+        return BulkDeleteResponse.builder()
+                .deleted(images.size())
+                .notFound(List.of())
+                .build();
+    }
+
+    /**
+     * Retrieves one page of a user's images, ordered by ID.
+     * Pages are read with one keyset query that seeks past the cursor and selects only the response
+     * columns, and are cached per cursor and page size; concurrent misses for the same page run one
+     * query between them. Misses are read in a read-only transaction, which a read replica can serve.
      *
      * @param username the username of the user
-     * @return a list of image responses
+     * @param cursor   the {@code nextCursor} of the previous page, or null for the first page
+     * @param limit    the page size, or null for the default; capped at {@code imgur.list.max-page-size}
+     * @return the images on the page and the cursor of the next one
      */
     @Override
-    @Cacheable(value = "imagesByUser", key = "#username")
-    public List<ImageResponse> getImagesByUsername(String username) {
+    public ImagePageResponse getImagesByUsername(String username, String cursor, Integer limit) {
+        int pageSize = limit != null ? Math.min(limit, maxPageSize) : defaultPageSize;
+        if (pageSize < 1) {
+            throw new InvalidImageException("Page size must be positive");
+        }
+        String afterId = cursor != null ? decodeCursor(cursor) : null;
 
-        UserEntity user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        ImagePageResponse page = imageListCache.getPage(username, cursor, afterId, pageSize,
+                () -> databaseLimiter.call(() ->
+                        readOnlyTransaction.execute(status -> loadPage(username, afterId, pageSize))));
 
-        List<ImageEntity> images = imageRepository.findByUserId(user.getId());
-        List<ImageResponse> responses = new ArrayList<>();
+        log.info("Retrieved {} images for user: {}", page.getImages().size(), username);
+        return page;
+    }
 
-        for (ImageEntity image : images) {
-            responses.add(new ImageResponse(image.getId(), image.getImageUrl()));
+    /**
+     * Reads one page of a user's images past {@code afterId}, or the first page if it is null.
+     */
+    private ImagePageResponse loadPage(String username, String afterId, int pageSize) {
+        // One extra row tells whether another page follows
+        Limit fetch = Limit.of(pageSize + 1);
+        List<ImageResponse> rows = afterId == null
+                ? imageRepository.findPageByUsername(username, fetch)
+                : imageRepository.findPageByUsernameAfter(username, afterId, fetch);
+        // The user is only looked up on its own when the page comes back empty
+        if (rows.isEmpty() && !userRepository.existsByUsername(username)) {
+            throw new UsernameNotFoundException("User not found");
         }
+        List<ImageResponse> images = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        String nextCursor = rows.size() > pageSize ? encodeCursor(images.get(images.size() - 1).getImageId()) : null;
+        return new ImagePageResponse(List.copyOf(images), nextCursor);
+    }
 
-        log.info("Images retrieved for user: {}", username);
-        return responses;
+    /**
+     * Streams all images of a user as one JSON array, ordered by ID.
+     * The user is looked up before anything is written, so an unknown user still gets a 404; the rows
+     * are then read and written out one by one when the returned body runs.
+     *
+     * @param username the username of the user
+     * @return the response body writing the images
+     */
+    @Override
+    public StreamingResponseBody streamImagesByUsername(String username) {
+        UserEntity user = databaseLimiter.call(() -> userRepository.findByUsername(username))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        String userId = user.getId();
+        return out -> imageListStreamer.write(username, userId, out);
     }
 
     /**
@@ -171,67 +872,171 @@ public class ImageServiceImpl implements ImgService {
      */
     @Override
     public ImageResponse getImageById(String imageId) {
-        ImageEntity image = imageRepository.findById(imageId)
+        ImageEntity image = databaseLimiter.call(() -> imageRepository.findById(imageId))
                 .orElseThrow(() -> new ImageNotFoundException("Image not found"));
 
         log.info("Retrieved image with ID: {}", imageId);
-        return new ImageResponse(image.getId(), image.getImageUrl());
+        return toImageResponse(image);
     }
 
     /**
-     * Uploads an image to Imgur using the API.
-     *
-     * @param file the image file to upload
-     * @return the Imgur response containing upload details
+     * Queues the images a batch uploaded to Imgur for deletion when their rows could not be saved.
+     */
+    private void discardUploads(List<BatchEntry> entries) {
+        List<String> uploaded = entries.stream()
+                .filter(entry -> entry.status == BatchUploadStatus.UPLOADED)
+                .map(entry -> entry.image.getDeleteHash())
+                .toList();
+        try {
+            databaseLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> imageDeletePipeline.discard(uploaded)));
+        } catch (RuntimeException e) {
+            log.error("Could not queue deletion of Imgur images {}: {}", uploaded, e.getMessage());
+        }
+    }
+
+    /**
+     * Refuses uploads up front once Imgur's credit is spent, rather than accepting work that can only fail.
      */
-    private ImgurResponse uploadImg(MultipartFile file) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Client-ID " + clientId);
-        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+    private void checkUploadCredit(String username) {
+        long creditRetryAfterMs = imgurRateLimiter.uploadRetryAfterMs();
+        if (creditRetryAfterMs > 0) {
+            log.warn("Imgur upload credit exhausted, rejecting upload for user: {}", username);
+            throw new TooManyRequestsException("Imgur upload limit reached, please retry later",
+                    Math.max(1, (creditRetryAfterMs + 999) / 1000));
+        }
+    }
 
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("image", file.getResource());
+    private static ImageEntity newImage(String imageUrl, String deleteHash, String contentHash, UserEntity user) {
+        ImageEntity image = new ImageEntity();
+        image.setImageUrl(imageUrl);
+        image.setDeleteHash(deleteHash);
+        image.setContentHash(contentHash);
+        image.setUser(user);
+        return image;
+    }
 
-        HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
-        ResponseEntity<ImgurResponse> response = this.restTemplate.postForEntity(uploadUrl, request, ImgurResponse.class);
+    private static int count(List<BatchUploadItemResponse> items, BatchUploadStatus status) {
+        return (int) items.stream().filter(item -> item.getStatus() == status).count();
+    }
 
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            return response.getBody();
-        } else {
-            throw new RuntimeException("Failed to upload image to Imgur");
+    private static ImageResponse toImageResponse(ImageEntity image) {
+        return new ImageResponse(image.getId(), image.getImageUrl());
+    }
+
+    private static String encodeCursor(String imageId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(imageId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImageException("Invalid cursor");
         }
     }
 
     /**
-     * Deletes an image from Imgur using the API.
-     *
-     * @param deleteHash the delete hash for the image
+     * Exposes a job's spooled file as a resource that is streamed from disk as a file part,
+     * keeping the original filename.
      */
-    private void deleteImageFromService(String deleteHash) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Client-ID " + clientId);
+    private Resource spooledResource(UploadJobEntity job) {
+        return spooledResource(job.getSpoolPath(), job.getOriginalFilename());
+    }
 
-            // Ensure the base URL ends with a slash
-            String url = deleteUrl.endsWith("/") ? deleteUrl : deleteUrl + "/";
-            url += deleteHash; // Concatenate the delete hash
+    private Resource spooledResource(String spoolPath, String originalFilename) {
+        Path path = spoolPath != null ? Paths.get(spoolPath) : null;
+        if (path == null || !Files.isReadable(path)) {
+            throw new IllegalStateException("Spooled upload is no longer available");
+        }
+        return new FileSystemResource(path) {
+            @Override
+            public String getFilename() {
+                return originalFilename != null ? originalFilename : super.getFilename();
+            }
+        };
+    }
+
+    private UploadJobResponse toJobResponse(UploadJobEntity job) {
+        return UploadJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .imageId(job.getImageId())
+                .imageUrl(job.getImageUrl())
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
 
-            log.info("Sending DELETE request to Imgur: {}", url);
+    /**
+     * Continuations after an Imgur call must never be dropped (an uploaded image whose metadata is
+     * never saved is leaked on Imgur), so they run on the calling thread when the pool is full.
+     */
+    private static Executor callerRunsWhenRejected(Executor executor) {
+        return command -> {
+            try {
+                executor.execute(command);
+            } catch (RejectedExecutionException e) {
+                command.run();
+            }
+        };
+    }
 
-            HttpEntity<Void> request = new HttpEntity<>(headers);
-            ResponseEntity<Void> response = this.restTemplate.exchange(url, HttpMethod.DELETE, request, Void.class);
+    /**
+     * Working state for one file of a batch upload.
+     */
+    private static final class BatchEntry {
 
-            if (response.getStatusCode() == HttpStatus.OK) {
-                log.info("Image deleted from Imgur: {}", deleteHash);
-            } else {
-                throw new RuntimeException("Failed to delete image from Imgur");
+        private final int index;
+        private final MultipartFile file;
+        private UploadSpool.SpooledFile spooled;
+        private BatchUploadStatus status;
+        private ImageEntity image;
+        private String errorMessage;
+
+        /**
+         * Earlier entry of the same batch with the same content, whose image this entry reuses.
+         */
+        private BatchEntry sameAs;
+
+        private BatchEntry(int index, MultipartFile file) {
+            this.index = index;
+            this.file = file;
+        }
+
+        private void fail(String message) {
+            status = BatchUploadStatus.FAILED;
+            image = null;
+            errorMessage = message;
+        }
+
+        private BatchUploadItemResponse toResponse() {
+            if (sameAs != null && status == null) {
+                if (sameAs.status == BatchUploadStatus.FAILED) {
+                    fail(sameAs.errorMessage);
+                } else {
+                    status = BatchUploadStatus.DEDUPLICATED;
+                    image = sameAs.image;
+                }
             }
-        } catch (HttpClientErrorException e) {
-            log.error("Imgur DELETE request failed with status {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new RuntimeException("Imgur DELETE request failed: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error during Imgur DELETE request: {}", e.getMessage(), e);
-            throw new RuntimeException("Unexpected error during Imgur DELETE request");
+            return BatchUploadItemResponse.builder()
+                    .index(index)
+                    .filename(file != null ? file.getOriginalFilename() : null)
+                    .status(status)
+                    .imageId(image != null ? image.getId() : null)
+                    .imageUrl(image != null ? image.getImageUrl() : null)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+
+    /**
+     * Thrown when a job's claim lapsed and was taken over while the job was running.
+     */
+    private static final class ClaimLostException extends RuntimeException {
+
+        ClaimLostException(String jobId) {
+            super("Lost the claim on upload job " + jobId);
         }
     }
-}
\ No newline at end of file
+}
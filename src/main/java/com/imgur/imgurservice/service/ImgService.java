@@ -1,16 +1,31 @@
 package com.imgur.imgurservice.service;
 
+import com.imgur.imgurservice.model.BatchUploadResponse;
+import com.imgur.imgurservice.model.BulkDeleteResponse;
+import com.imgur.imgurservice.model.ImagePageResponse;
 import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.model.UploadJobResponse;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 public interface ImgService {
-    ImageResponse uploadAndSaveImage(MultipartFile file, String username);
+    UploadJobResponse uploadAndSaveImage(MultipartFile file, String username);
+
+    BatchUploadResponse uploadAndSaveImages(List<MultipartFile> files, String username);
+
+    UploadJobResponse getUploadJob(String jobId, String username);
 
     void deleteImage(String imageId, String username);
 
-    List<ImageResponse> getImagesByUsername(String accessToken);
+    BulkDeleteResponse deleteImages(List<String> imageIds, String username);
+
+    BulkDeleteResponse deleteAllImages(String username);
+
+    ImagePageResponse getImagesByUsername(String username, String cursor, Integer limit);
+
+    StreamingResponseBody streamImagesByUsername(String username);
 
     ImageResponse getImageById(String imageId);
 
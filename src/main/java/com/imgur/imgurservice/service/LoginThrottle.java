@@ -0,0 +1,127 @@
+package com.imgur.imgurservice.service;
+
+import com.imgur.imgurservice.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Limits failed logins per username and per client address.
+ * Failures are counted in Redis for a fixed window that starts with the first failure, so the limit
+ * holds across replicas. Once either counter reaches its limit, further attempts are turned away
+ * before any password hash is computed. A successful login clears the username's counter.
+ * If Redis is unreachable the throttle fails open.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final RedisSerializer<String> ARGS = new StringRedisSerializer();
+    private static final RedisSerializer<Long> RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisScript<Long> checkScript = script("scripts/login-attempts-check.lua");
+    private final RedisScript<Long> recordScript = script("scripts/login-attempts-record.lua");
+
+    @Value("${auth.login.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.login.throttle.key-prefix:login:failures}")
+    private String keyPrefix;
+
+    /**
+     * Failed logins allowed for one username within the window.
+     */
+    @Value("${auth.login.throttle.max-failures-per-user:5}")
+    private long maxFailuresPerUser;
+
+    /**
+     * Failed logins allowed from one address within the window; higher than the per-user limit
+     * because several users may share an address.
+     */
+    @Value("${auth.login.throttle.max-failures-per-address:50}")
+    private long maxFailuresPerAddress;
+
+    @Value("${auth.login.throttle.window-ms:900000}")
+    private long windowMs;
+
+    public LoginThrottle(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Turns away a login whose username or address has failed too often.
+     *
+     * @param username      the username being logged in
+     * @param clientAddress the address the request came from
+     * @throws TooManyRequestsException with the time until the block lifts
+     */
+    public void check(String username, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        Long waitMs = execute(checkScript, keys(username, clientAddress),
+                String.valueOf(maxFailuresPerUser), String.valueOf(maxFailuresPerAddress));
+        if (waitMs != null && waitMs > 0) {
+            log.warn("Throttling login for user {} from {}", username, clientAddress);
+            throw new TooManyRequestsException("Too many failed login attempts", Math.max(1, (waitMs + 999) / 1000));
+        }
+    }
+
+    /**
+     * Counts a failed login.
+     *
+     * @param username      the username being logged in
+     * @param clientAddress the address the request came from
+     */
+    public void recordFailure(String username, String clientAddress) {
+        if (enabled) {
+            execute(recordScript, keys(username, clientAddress), String.valueOf(windowMs));
+        }
+    }
+
+    /**
+     * Clears the failure count of a username after a successful login.
+     *
+     * @param username the username that logged in
+     */
+    public void recordSuccess(String username) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.delete(keyPrefix + ":user:" + username);
+        } catch (RuntimeException e) {
+            log.warn("Login throttle unavailable: {}", e.getMessage());
+        }
+    }
+
+    private List<String> keys(String username, String clientAddress) {
+        return List.of(keyPrefix + ":user:" + username, keyPrefix + ":address:" + clientAddress);
+    }
+
+    private Long execute(RedisScript<Long> script, List<String> keys, Object... args) {
+        try {
+            return redisTemplate.execute(script, ARGS, RESULT, keys, args);
+        } catch (RuntimeException e) {
+            log.warn("Login throttle unavailable, letting the attempt through: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static RedisScript<Long> script(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
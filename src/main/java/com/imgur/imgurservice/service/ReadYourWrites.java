@@ -0,0 +1,104 @@
+package com.imgur.imgurservice.service;
+
+import com.imgur.imgurservice.util.ReplicaRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Gives users read-your-writes consistency while reads go to a lagging replica.
+ * Once a change by or for a user commits, a marker with a short TTL (longer than the replica's usual
+ * lag) is set in Redis, so every replica of the service sees it; reads for that user run on the
+ * primary until it expires. Everyone else's reads keep going to the replica.
+ * Does nothing when no replica is configured. If Redis cannot be reached, reads go to the primary.
+ */
+@Slf4j
+@Component
+public class ReadYourWrites {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean enabled;
+
+    @Value("${datasource.read-your-writes.key-prefix:rw:written:}")
+    private String keyPrefix;
+
+    /**
+     * How long a user's reads stay on the primary after one of their writes.
+     */
+    @Value("${datasource.read-your-writes.window-ms:5000}")
+    private long windowMs;
+
+    public ReadYourWrites(RedisTemplate<String, Object> redisTemplate,
+                          @Value("${datasource.replica.url:}") String replicaUrl) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = StringUtils.hasText(replicaUrl);
+    }
+
+    /**
+     * Records that the user's data changed, once the change commits.
+     *
+     * @param username the user whose data changed
+     */
+    public void wrote(String username) {
+        wrote(List.of(username));
+    }
+
+    /**
+     * Records that the users' data changed, once the change commits.
+     *
+     * @param usernames the users whose data changed
+     */
+    public void wrote(Collection<String> usernames) {
+        if (!enabled || usernames.isEmpty()) {
+            return;
+        }
+        Runnable mark = () -> usernames.forEach(username -> {
+            try {
+                redisTemplate.opsForValue().set(keyPrefix + username, 1, Duration.ofMillis(windowMs));
+            } catch (RuntimeException e) {
+                log.warn("Could not record write by {}, their next read may miss it: {}", username, e.getMessage());
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        } else {
+            mark.run();
+        }
+    }
+
+    /**
+     * Runs a read for the given user, on the primary if the user wrote recently.
+     * The read must open its own read-only transaction inside the action.
+     *
+     * @param username the user whose data is read
+     * @param action   the read
+     * @param <T>      the result type
+     * @return the read's result
+     */
+    public <T> T read(String username, Supplier<T> action) {
+        return enabled && wroteRecently(username) ? ReplicaRoutingDataSource.onPrimary(action) : action.get();
+    }
+
+    private boolean wroteRecently(String username) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(keyPrefix + username));
+        } catch (RuntimeException e) {
+            log.warn("Could not check recent writes by {}, reading from the primary: {}", username, e.getMessage());
+            return true;
+        }
+    }
+}
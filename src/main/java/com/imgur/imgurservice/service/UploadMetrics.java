@@ -0,0 +1,94 @@
+package com.imgur.imgurservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the stages of the async upload pipeline, so that what happens after POST /images has answered
+ * can be seen and the upload pools sized from it.
+ * Every stage is recorded in {@code imgur.upload.stage}, tagged with the stage and whether it succeeded;
+ * the whole job, from acceptance to its terminal state, in {@code imgur.upload.job}, tagged with the
+ * outcome. All timers publish a percentile histogram and the 50th, 95th and 99th percentiles.
+ */
+@Component
+public class UploadMetrics {
+
+    /**
+     * A stage of an upload job.
+     */
+    public enum Stage {
+        /** Waiting in the upload executor's queue for a worker. */
+        QUEUE,
+        /** The Imgur upload call, until its response arrives. */
+        IMGUR,
+        /** Looking up the uploading user. */
+        USER_LOOKUP,
+        /** The transaction saving the image row and completing the job, including the wait for a database permit and the user lookup. */
+        DB_SAVE,
+        /** Retiring the user's cached image pages. */
+        CACHE
+    }
+
+    private final Map<Stage, Timer> succeeded = new EnumMap<>(Stage.class);
+    private final Map<Stage, Timer> failed = new EnumMap<>(Stage.class);
+    private final Timer completedJobs;
+    private final Timer failedJobs;
+
+    public UploadMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            succeeded.put(stage, stageTimer(meterRegistry, stage, "success"));
+            failed.put(stage, stageTimer(meterRegistry, stage, "failure"));
+        }
+        this.completedJobs = jobTimer(meterRegistry, "completed");
+        this.failedJobs = jobTimer(meterRegistry, "failed");
+    }
+
+    /**
+     * Records a stage that started at the given {@link System#nanoTime()} and has just ended.
+     *
+     * @param stage      the stage
+     * @param startNanos when the stage started
+     * @param success    whether it succeeded
+     */
+    public void record(Stage stage, long startNanos, boolean success) {
+        (success ? succeeded : failed).get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a job that has just reached its terminal state.
+     *
+     * @param acceptedAt when the job was accepted
+     * @param completed  whether it completed rather than failed
+     */
+    public void recordJob(Instant acceptedAt, boolean completed) {
+        if (acceptedAt != null) {
+            (completed ? completedJobs : failedJobs).record(Duration.between(acceptedAt, Instant.now()));
+        }
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, Stage stage, String outcome) {
+        return Timer.builder("imgur.upload.stage")
+                .description("Time spent in one stage of an upload job")
+                .tag("stage", stage.name().toLowerCase())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Timer jobTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("imgur.upload.job")
+                .description("Time from accepting an upload job to its completion or failure")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
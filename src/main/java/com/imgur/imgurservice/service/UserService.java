@@ -14,7 +14,7 @@ public interface UserService {
 
     String deleteByUsername(String userId);
 
-    JwtResponse authorizeUser(String username, String password);
+    JwtResponse authorizeUser(String username, String password, String clientAddress);
 
     void updateUserImages(String username, List<String> imageIds);
 }
@@ -3,6 +3,7 @@ package com.imgur.imgurservice.service;
 import com.imgur.imgurservice.entity.ImageEntity;
 import com.imgur.imgurservice.entity.UserEntity;
 import com.imgur.imgurservice.exception.AccessDeniedException;
+import com.imgur.imgurservice.exception.TooManyRequestsException;
 import com.imgur.imgurservice.exception.UserAlreadyExistsException;
 import com.imgur.imgurservice.exception.UsernameNotFoundException;
 import com.imgur.imgurservice.model.Authentication.JwtResponse;
@@ -10,15 +11,29 @@ import com.imgur.imgurservice.model.UserRequest;
 import com.imgur.imgurservice.model.UserResponse;
 import com.imgur.imgurservice.repository.ImageRepository;
 import com.imgur.imgurservice.repository.UserRepository;
+import com.imgur.imgurservice.util.Futures;
 import com.imgur.imgurservice.util.JwtTokenManager;
+import com.imgur.imgurservice.util.ResourceLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -32,13 +47,39 @@ public class UserServiceImpl implements UserService {
     private final ImageRepository imageRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenManager jwtTokenManager;
+    private final LoginThrottle loginThrottle;
+    private final Executor loginExecutor;
+    private final ImageListCache imageListCache;
+    private final ReadYourWrites readYourWrites;
+    private final ResourceLimiter databaseLimiter;
+
+    /**
+     * Hash checked against when the username does not exist, so unknown and known usernames take
+     * the same time to reject.
+     */
+    private final String unknownUserHash;
+
+    /**
+     * Longest a login may wait for a hashing thread before it is turned away.
+     */
+    @Value("${auth.login.timeout-ms:5000}")
+    private long loginTimeoutMs;
 
     public UserServiceImpl(UserRepository userRepository, ImageRepository imageRepository,
-                           PasswordEncoder passwordEncoder, JwtTokenManager jwtTokenManager) {
+                           PasswordEncoder passwordEncoder, JwtTokenManager jwtTokenManager,
+                           LoginThrottle loginThrottle, @Qualifier("loginExecutor") Executor loginExecutor,
+                           ImageListCache imageListCache, ReadYourWrites readYourWrites,
+                           @Qualifier("databaseLimiter") ResourceLimiter databaseLimiter) {
         this.userRepository = userRepository;
         this.imageRepository = imageRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenManager = jwtTokenManager;
+        this.loginThrottle = loginThrottle;
+        this.loginExecutor = loginExecutor;
+        this.imageListCache = imageListCache;
+        this.readYourWrites = readYourWrites;
+        this.databaseLimiter = databaseLimiter;
+        this.unknownUserHash = passwordEncoder.encode("unknown-user");
     }
 
     /**
@@ -49,7 +90,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserResponse createUser(UserRequest userRequest) {
-        if (userRepository.findByUsername(userRequest.getUsername()).isPresent()) {
+        if (databaseLimiter.call(() -> userRepository.findByUsername(userRequest.getUsername())).isPresent()) {
             throw new UserAlreadyExistsException("Username already exists");
         }
 
@@ -58,7 +99,9 @@ public class UserServiceImpl implements UserService {
         userEntity.setUsername(userRequest.getUsername());
         userEntity.setEmail(userRequest.getEmail());
         userEntity.setPassword(passwordEncoder.encode(userRequest.getPassword()));
-        userEntity = userRepository.save(userEntity);
+        UserEntity unsaved = userEntity;
+        userEntity = databaseLimiter.call(() -> userRepository.save(unsaved));
+        readYourWrites.wrote(userEntity.getUsername());
 
         log.info("User registered successfully: {}", userRequest.getUsername());
 
@@ -71,14 +114,19 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Retrieves a user by their username.
+     * Read from the replica when there is one, or from the primary just after the user registered.
+     * Loaded in sync mode, so concurrent misses share one query and filling the cache is not announced to
+     * other replicas as a change.
      *
      * @param username the username of the user to retrieve
      * @return the user's details
      */
     @Override
-    @Cacheable (value = "users", key="#username")
+    @Cacheable (value = "users", key="#username", sync = true)
+    @Transactional(readOnly = true)
     public UserResponse getUserByName(String username) {
-        UserEntity user = userRepository.findByUsername(username)
+        UserEntity user = readYourWrites.read(username,
+                        () -> databaseLimiter.call(() -> userRepository.findByUsername(username)))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         UserResponse response = new UserResponse();
@@ -98,52 +146,120 @@ public class UserServiceImpl implements UserService {
     @Override
     @CacheEvict(value = "users", key = "#username")
     public String deleteByUsername(String userId) {
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        userRepository.delete(user);
+        databaseLimiter.run(() -> {
+            UserEntity user = userRepository.findById(userId)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            userRepository.delete(user);
+        });
         log.info("Deleted user with ID: {}", userId);
         return "User deleted successfully.";
     }
 
     /**
      * Authenticates a user and generates a JWT token.
+     * The password is checked on the login executor, so a burst of logins queues there instead of
+     * occupying request threads, and is turned away once that queue is full. A check whose login has
+     * already timed out, whether still queued or not yet hashing, is skipped. Usernames and addresses
+     * with too many recent failures are rejected before any hashing.
      *
-     * @param username the username
-     * @param password the password
+     * @param username      the username
+     * @param password      the password
+     * @param clientAddress the address the request came from
      * @return the authentication response containing the JWT token
      */
     @Override
-    public JwtResponse authorizeUser(String username, String password) {
-        UserEntity user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new AccessDeniedException("Invalid credentials"));
+    public JwtResponse authorizeUser(String username, String password, String clientAddress) {
+        loginThrottle.check(username, clientAddress);
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        CompletableFuture<Boolean> verification = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(loginTimeoutMs);
+        try {
+            loginExecutor.execute(() -> {
+                if (verification.isDone() || System.nanoTime() - deadline >= 0) {
+                    verification.cancel(false);
+                    return;
+                }
+                try {
+                    verification.complete(verifyPassword(username, password, verification::isDone));
+                } catch (Throwable e) {
+                    verification.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Login queue full, rejecting login for user: {}", username);
+            throw new TooManyRequestsException("Login capacity reached", 1);
+        }
+
+        boolean verified;
+        try {
+            verified = verification.get(loginTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            verification.cancel(false);
+            throw new TooManyRequestsException("Login capacity reached", 1);
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e);
+            throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking credentials", e);
+        }
+
+        if (!verified) {
+            loginThrottle.recordFailure(username, clientAddress);
             throw new AccessDeniedException("Invalid credentials");
         }
+        loginThrottle.recordSuccess(username);
 
         String token = jwtTokenManager.generateToken(username);
         log.info("JWT token generated for user: {}", username);
         return new JwtResponse(token);
     }
 
+    /**
+     * Checks a password against the stored hash, rehashing it if it was made with a lower cost than
+     * the one now configured. Only the queries hold a database permit, not the hashing. Once the caller
+     * has given up, the check stops before its next query or hash; its result is discarded anyway.
+     *
+     * @param abandoned tells whether the caller has stopped waiting for the result
+     * @return whether the password is correct
+     */
+    private boolean verifyPassword(String username, String password, BooleanSupplier abandoned) {
+        UserEntity user = databaseLimiter.call(() -> userRepository.findByUsername(username)).orElse(null);
+        if (abandoned.getAsBoolean()) {
+            return false;
+        }
+        if (user == null) {
+            passwordEncoder.matches(password, unknownUserHash);
+            return false;
+        }
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            return false;
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword()) && !abandoned.getAsBoolean()) {
+            user.setPassword(passwordEncoder.encode(password));
+            databaseLimiter.call(() -> userRepository.save(user));
+            log.info("Rehashed password for user: {}", username);
+        }
+        return true;
+    }
+
     /**
      * Associates a list of image IDs with the user's profile.
+     * Only the cached image pages of this user and of the images' previous owners are retired.
      *
      * @param username the username of the user to update
      * @param imageIds the list of image IDs to associate with the user
      */
     @Override
-    @CacheEvict(value = "imagesByUser", allEntries = true)
     public void updateUserImages(String username, List<String> imageIds) {
         // Fetch the user from the database
-        UserEntity user = userRepository.findByUsername(username)
+        UserEntity user = databaseLimiter.call(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
         log.info("Found user: {}. Updating associated images...", username);
 
         // Fetch the Image entities for the provided IDs
-        List<ImageEntity> images = imageRepository.findAllByIdIn(imageIds);
+        List<ImageEntity> images = databaseLimiter.call(() -> imageRepository.findAllByIdIn(imageIds));
 
         if (images.size() != imageIds.size()) {
             log.warn("Some image IDs provided do not exist in the database.");
@@ -151,12 +267,18 @@ public class UserServiceImpl implements UserService {
         }
 
         // Persist the association by setting the user in each ImageEntity
+        Set<String> affectedUsers = new HashSet<>();
+        affectedUsers.add(username);
         for (ImageEntity image : images) {
+            if (image.getUser() != null) {
+                affectedUsers.add(image.getUser().getUsername());
+            }
             image.setUser(user); // Associate the user with the image
         }
 
         // Save the updated ImageEntity objects
-        imageRepository.saveAll(images);
+        databaseLimiter.call(() -> imageRepository.saveAll(images));
+        imageListCache.changed(affectedUsers);
 
         log.info("Successfully updated images for user: {}", username);
     }
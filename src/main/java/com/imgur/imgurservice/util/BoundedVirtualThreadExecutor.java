@@ -0,0 +1,72 @@
+package com.imgur.imgurservice.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor that starts a virtual thread per task but admits only a bounded number of tasks at once.
+ * Submissions beyond the bound are rejected, preserving the backpressure that the bounded queue of a
+ * platform thread pool provides.
+ */
+public class BoundedVirtualThreadExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorService delegate;
+    private final Semaphore admissions;
+    private final int maxTasks;
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param threadNamePrefix prefix for the names of the virtual threads
+     * @param maxTasks         the maximum number of tasks running or waiting at once
+     */
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxTasks) {
+        ThreadFactory factory = Thread.ofVirtual().name(threadNamePrefix, 0).factory();
+        this.delegate = Executors.newThreadPerTaskExecutor(factory);
+        this.admissions = new Semaphore(maxTasks);
+        this.maxTasks = maxTasks;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admissions.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Executor is at capacity");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    admissions.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admissions.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of tasks currently admitted
+     */
+    public int getActiveCount() {
+        return maxTasks - admissions.availablePermits();
+    }
+
+    /**
+     * @return the number of tasks rejected because the executor was at capacity
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
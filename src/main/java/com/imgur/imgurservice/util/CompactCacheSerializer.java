@@ -0,0 +1,192 @@
+package com.imgur.imgurservice.util;
+
+import com.imgur.imgurservice.model.ImagePageResponse;
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.model.UserResponse;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary Redis serializer for the cached user, image list and image page responses.
+ * A value is written as one type byte followed by its fields, without the class names and field names
+ * the JSON serializer stores; bodies above the compression threshold are gzipped, which the type byte
+ * records. Any other value, and any entry written before this serializer was introduced, goes through
+ * {@link GenericJackson2JsonRedisSerializer}: JSON never starts with one of the type bytes, so both
+ * formats can be read side by side.
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    private static final byte NULL_VALUE = 0x01;
+    private static final byte USER = 0x02;
+    private static final byte IMAGE_LIST = 0x03;
+    private static final byte IMAGE_PAGE = 0x04;
+    private static final byte COMPRESSED = (byte) 0x80;
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold body size in bytes above which values are gzipped; 0 disables compression
+     */
+    public CompactCacheSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        byte type;
+        if (value instanceof NullValue) {
+            return new byte[]{NULL_VALUE};
+        } else if (value instanceof UserResponse) {
+            type = USER;
+        } else if (isImageList(value)) {
+            type = IMAGE_LIST;
+        } else if (value instanceof ImagePageResponse page && page.getImages() != null && isImageList(page.getImages())) {
+            type = IMAGE_PAGE;
+        } else {
+            return json.serialize(value);
+        }
+
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(body)) {
+                if (type == USER) {
+                    writeUser(out, (UserResponse) value);
+                } else if (type == IMAGE_PAGE) {
+                    writePage(out, (ImagePageResponse) value);
+                } else {
+                    writeImages(out, (List<?>) value);
+                }
+            }
+            boolean compress = compressionThreshold > 0 && body.size() > compressionThreshold;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(compress ? body.size() / 2 : body.size() + 1);
+            bytes.write(compress ? type | COMPRESSED : type);
+            if (compress) {
+                try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                    body.writeTo(gzip);
+                }
+            } else {
+                body.writeTo(bytes);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize cache value", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte type = (byte) (bytes[0] & ~COMPRESSED);
+        if (type != NULL_VALUE && type != USER && type != IMAGE_LIST && type != IMAGE_PAGE) {
+            return json.deserialize(bytes);
+        }
+        if (type == NULL_VALUE) {
+            return NullValue.INSTANCE;
+        }
+
+        try {
+            InputStream body = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+            if ((bytes[0] & COMPRESSED) != 0) {
+                body = new GZIPInputStream(body);
+            }
+            try (DataInputStream in = new DataInputStream(body)) {
+                return switch (type) {
+                    case USER -> readUser(in);
+                    case IMAGE_PAGE -> readPage(in);
+                    default -> readImages(in);
+                };
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize cache value", e);
+        }
+    }
+
+    private static boolean isImageList(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof ImageResponse)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeUser(DataOutputStream out, UserResponse user) throws IOException {
+        writeString(out, user.getUserId());
+        writeString(out, user.getUsername());
+        writeString(out, user.getEmail());
+    }
+
+    private static UserResponse readUser(DataInputStream in) throws IOException {
+        return UserResponse.builder()
+                .userId(readString(in))
+                .username(readString(in))
+                .email(readString(in))
+                .build();
+    }
+
+    private static void writeImages(DataOutputStream out, List<?> images) throws IOException {
+        out.writeInt(images.size());
+        for (Object element : images) {
+            ImageResponse image = (ImageResponse) element;
+            writeString(out, image.getImageId());
+            writeString(out, image.getImageUrl());
+        }
+    }
+
+    private static List<ImageResponse> readImages(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<ImageResponse> images = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            images.add(ImageResponse.builder()
+                    .imageId(readString(in))
+                    .imageUrl(readString(in))
+                    .build());
+        }
+        return images;
+    }
+
+    private static void writePage(DataOutputStream out, ImagePageResponse page) throws IOException {
+        writeImages(out, page.getImages());
+        writeString(out, page.getNextCursor());
+    }
+
+    private static ImagePageResponse readPage(DataInputStream in) throws IOException {
+        return ImagePageResponse.builder()
+                .images(readImages(in))
+                .nextCursor(readString(in))
+                .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
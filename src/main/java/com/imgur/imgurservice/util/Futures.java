@@ -0,0 +1,29 @@
+package com.imgur.imgurservice.util;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers for working with {@link java.util.concurrent.CompletableFuture} results.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Strips the {@link CompletionException} / {@link ExecutionException} wrappers added by the
+     * future machinery so callers see the original failure.
+     *
+     * @param error the failure reported by a future
+     * @return the underlying cause
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,179 @@
+package com.imgur.imgurservice.util;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of asynchronous calls in flight without blocking any thread.
+ * Calls beyond the limit wait in a bounded FIFO queue and are started as earlier calls complete;
+ * once the queue is full, further calls fail immediately with a {@link RejectedExecutionException}.
+ * A queued call is started on the dispatcher, if one is given, and otherwise on the thread that completed
+ * the call before it. Queued calls that complete at once (e.g. rejected by an open circuit breaker) are
+ * started one after another in a loop rather than from inside each other, so draining a long queue never
+ * deepens the stack.
+ */
+public class InFlightLimiter {
+
+    /**
+     * Queued calls freed on this thread while it is already starting queued calls, or null if it is not.
+     */
+    private static final ThreadLocal<Queue<Runnable>> DRAINING = new ThreadLocal<>();
+
+    private final String name;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final Executor dispatcher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private int inFlight;
+
+    /**
+     * @param name        the name of the guarded resource, used in error messages
+     * @param maxInFlight the maximum number of calls running at once
+     * @param maxQueued   the maximum number of calls waiting for a slot
+     */
+    public InFlightLimiter(String name, int maxInFlight, int maxQueued) {
+        this(name, maxInFlight, maxQueued, null);
+    }
+
+    /**
+     * @param name        the name of the guarded resource, used in error messages
+     * @param maxInFlight the maximum number of calls running at once
+     * @param maxQueued   the maximum number of calls waiting for a slot
+     * @param dispatcher  starts queued calls once a slot frees, or null to start them on the thread that freed it
+     */
+    public InFlightLimiter(String name, int maxInFlight, int maxQueued, Executor dispatcher) {
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Starts the call now if a slot is free, queues it otherwise.
+     *
+     * @param call starts the asynchronous call
+     * @param <T>  the result type
+     * @return a future completing with the call's result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        lock.lock();
+        try {
+            if (inFlight >= maxInFlight) {
+                if (waiting.size() >= maxQueued) {
+                    rejected.incrementAndGet();
+                    return CompletableFuture.failedFuture(
+                            new RejectedExecutionException("Too many " + name + " requests in flight"));
+                }
+                waiting.add(start);
+                return result;
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        start.run();
+        return result;
+    }
+
+    /**
+     * Hands the freed slot to the next queued call, if any.
+     */
+    private void release() {
+        Runnable next;
+        lock.lock();
+        try {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (next == null) {
+            return;
+        }
+        if (dispatcher != null) {
+            try {
+                dispatcher.execute(next);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Dispatcher shut down: start the call here
+            }
+        }
+        startQueued(next);
+    }
+
+    /**
+     * Starts a queued call on this thread. A call freed while another one is being started here is
+     * deferred to the loop instead of started recursively.
+     */
+    private static void startQueued(Runnable call) {
+        Queue<Runnable> pending = DRAINING.get();
+        if (pending != null) {
+            pending.add(call);
+            return;
+        }
+        pending = new ArrayDeque<>();
+        DRAINING.set(pending);
+        try {
+            for (Runnable next = call; next != null; next = pending.poll()) {
+                next.run();
+            }
+        } finally {
+            DRAINING.remove();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -1,31 +1,64 @@
 package com.imgur.imgurservice.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.imgur.imgurservice.exception.AccessDeniedException;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * Utility class for managing JWT tokens.
  * Provides methods for token generation, validation, and claim extraction.
+ * The signing key and parser are built once; verified claims are cached by token hash until the token
+ * expires, so repeat callers skip the signature check.
  */
 @Service
 public class JwtTokenManager {
 
     /**
-     * Secret key for signing and validating JWT tokens.
-     * This should be externalized to a secure configuration.
+     * Key for signing and validating JWT tokens, decoded from the Base64 {@code jwt.secret}.
      */
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Key signKey;
+
+    /**
+     * Parser bound to the signing key; immutable and safe to share between threads.
+     */
+    private final JwtParser parser;
+
+    /**
+     * Verified claims keyed by the SHA-256 of the token, each entry expiring with its token.
+     */
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtTokenManager(@Value("${jwt.secret}") String secret,
+                           @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                           MeterRegistry meterRegistry) {
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+    }
 
     /**
      * Extracts the username (subject) from a JWT token.
@@ -56,10 +89,31 @@ public class JwtTokenManager {
      * @return the resolved claim
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifyToken(token);
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies a JWT token and returns its claims.
+     * The signature and expiry are checked once per token; later calls with the same token are served
+     * from the cache until it expires.
+     *
+     * @param token the JWT token
+     * @return the verified claims
+     * @throws AccessDeniedException if the token is malformed, tampered with or expired
+     */
+    public Claims verifyToken(String token) {
+        String tokenHash = sha256(token);
+        Claims claims = verifiedTokens.getIfPresent(tokenHash);
+        if (claims == null) {
+            claims = extractAllClaims(token);
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(tokenHash, claims);
+            }
+        }
+        return claims;
+    }
+
     /**
      * Extracts all claims from a JWT token.
      *
@@ -68,8 +122,8 @@ public class JwtTokenManager {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token).getBody();
-        } catch (JwtException e) {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
             throw new AccessDeniedException("Invalid or expired token: " + e.getMessage());
         }
     }
@@ -81,8 +135,8 @@ public class JwtTokenManager {
      */
     public void validateToken(final String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token);
-        } catch (JwtException e) {
+            verifyToken(token);
+        } catch (AccessDeniedException e) {
             throw new AccessDeniedException("Token validation failed");
         }
     }
@@ -113,17 +167,38 @@ public class JwtTokenManager {
                 .setSubject(userName)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
-     * Retrieves the signing key for JWT tokens.
-     *
-     * @return the signing key
+     * Expires each cached token at its own {@code exp} claim.
      */
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenHash, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
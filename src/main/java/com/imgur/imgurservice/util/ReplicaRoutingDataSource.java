@@ -0,0 +1,59 @@
+package com.imgur.imgurservice.util;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-only data source that serves connections from a replica, except while the current thread is
+ * pinned to the primary by {@link #onPrimary(Supplier)}.
+ * It is installed as the read-only target of a {@code LazyConnectionDataSourceProxy}, which only
+ * fetches the physical connection at the first statement; the pin is therefore honoured for any
+ * read-only transaction that runs its queries inside the pinned section.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String REPLICA = "replica";
+    private static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    public ReplicaRoutingDataSource(DataSource replica, DataSource primary) {
+        setTargetDataSources(Map.of(REPLICA, replica, PRIMARY, primary));
+        setDefaultTargetDataSource(replica);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs an action whose reads must see the primary's latest state.
+     *
+     * @param action the action to run
+     * @param <T>    the result type
+     * @return the action's result
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    /**
+     * @return whether reads on the current thread are pinned to the primary
+     */
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isPinnedToPrimary() ? PRIMARY : REPLICA;
+    }
+}
@@ -0,0 +1,84 @@
+package com.imgur.imgurservice.util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrent calls against a shared resource (e.g. the Imgur API or the
+ * connection pool) independently of how many threads are running.
+ * This is what bounds concurrency when work runs on virtual threads, where pool size no longer does.
+ * Permits are held per thread: a call made while the thread already holds one runs under it, so wrapping
+ * an entry point whose callers are themselves wrapped never waits on itself.
+ */
+public class ResourceLimiter {
+
+    private final String name;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    /**
+     * @param name             the name of the guarded resource, used in error messages
+     * @param permits          the maximum number of concurrent calls
+     * @param acquireTimeoutMs how long a caller may wait for a permit before failing
+     */
+    public ResourceLimiter(String name, int permits, long acquireTimeoutMs) {
+        this.name = name;
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    /**
+     * Runs an action while holding a permit.
+     *
+     * @param action the action to run
+     * @param <T>    the result type
+     * @return the action's result
+     * @throws IllegalStateException if no permit became available in time
+     */
+    public <T> T call(Supplier<T> action) {
+        if (holding.get() != null) {
+            return action.get();
+        }
+        acquire();
+        holding.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            holding.remove();
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs an action without a result while holding a permit.
+     *
+     * @param action the action to run
+     */
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Timed out waiting for " + name + " capacity");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name + " capacity");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.imgur.imgurservice.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs repository calls slower than a threshold and counts them in {@code db.repository.slow}.
+ * Only the repository method and its parameter types are logged, never the arguments, so image IDs,
+ * usernames and password hashes stay out of the log. Hibernate's {@code org.hibernate.SQL_SLOW} log
+ * complements it with the statement itself, its bound parameters shown as placeholders.
+ */
+@Slf4j
+public class SlowRepositoryCallLogger implements RepositoryMethodInvocationListener {
+
+    private final MeterRegistry meterRegistry;
+    private final long thresholdMs;
+
+    /**
+     * @param meterRegistry the registry the slow-call counters are kept in
+     * @param thresholdMs   calls taking longer than this are logged; a negative value disables the log
+     */
+    public SlowRepositoryCallLogger(MeterRegistry meterRegistry, long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdMs = thresholdMs;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        if (thresholdMs < 0) {
+            return;
+        }
+        long durationMs = invocation.getDuration(TimeUnit.MILLISECONDS);
+        if (durationMs <= thresholdMs) {
+            return;
+        }
+        String repository = invocation.getRepositoryInterface().getSimpleName();
+        Method method = invocation.getMethod();
+        Counter.builder("db.repository.slow")
+                .description("Repository calls slower than the slow-query threshold")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .register(meterRegistry)
+                .increment();
+        log.warn("Slow repository call {}.{}({}) took {} ms ({})", repository, method.getName(),
+                Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(", ")),
+                durationMs, invocation.getResult() != null ? invocation.getResult().getState() : "unknown");
+    }
+}
@@ -0,0 +1,295 @@
+package com.imgur.imgurservice.util;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * A cache with an in-process tier in front of a shared one.
+ * Reads are served from the local tier when possible and fall back to the shared tier, whose hits are
+ * copied into the local tier. Writes and evictions go to both tiers and are announced through the
+ * invalidation callback, so other replicas can drop their local copy of the key. Filling a miss, through a
+ * load or {@link #putIfAbsent(Object, Object)}, is not announced: it replaces nothing another replica could hold.
+ * Local keys are the string form of the cache key, the same form the shared tier stores.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} (used by {@code @Cacheable(sync = true)}) are single-flight:
+ * concurrent misses on a key wait for one loader instead of each querying the database. A load that is
+ * overtaken by an eviction still answers its callers but is not cached. With a positive early refresh
+ * factor, an entry is reloaded shortly before it expires, with a probability that rises as expiry nears
+ * and with the time the last load took (probabilistic early expiration); in stale-while-revalidate mode
+ * that reload runs in the background while callers keep getting the current value.
+ */
+public class TwoTierCache implements Cache {
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local;
+    private final Cache shared;
+    private final Consumer<String> invalidations;
+    private final Duration timeToLive;
+    private final double earlyRefreshBeta;
+    private final boolean staleWhileRevalidate;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * A locally cached value with what is needed to decide on an early refresh.
+     *
+     * @param value     the cached value, possibly {@code null}
+     * @param expiresAt when the local tier drops the entry, in {@link System#nanoTime()} terms
+     * @param loadNanos how long loading the value took
+     */
+    private record LocalEntry(Object value, long expiresAt, long loadNanos) {
+    }
+
+    /**
+     * @param settings        size, lifetime and refresh behaviour of the local tier
+     * @param shared          the shared tier, holding the authoritative copy
+     * @param invalidations   told the key of every write or eviction, or {@code null} when the cache is cleared
+     * @param refreshExecutor runs background refreshes in stale-while-revalidate mode
+     */
+    public TwoTierCache(TwoTierCacheManager.LocalSettings settings, Cache shared, Consumer<String> invalidations,
+                        Executor refreshExecutor) {
+        this.local = Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .expireAfterWrite(settings.timeToLive())
+                .recordStats()
+                .build();
+        this.shared = shared;
+        this.invalidations = invalidations;
+        this.timeToLive = settings.timeToLive();
+        this.earlyRefreshBeta = settings.earlyRefreshBeta();
+        this.staleWhileRevalidate = settings.staleWhileRevalidate();
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * @return the in-process tier, for metrics
+     */
+    public com.github.benmanes.caffeine.cache.Cache<String, ?> getLocalCache() {
+        return local;
+    }
+
+    @Override
+    public String getName() {
+        return shared.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return shared.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            return new SimpleValueWrapper(entry.value());
+        }
+        ValueWrapper value = shared.get(key);
+        if (value != null) {
+            storeLocal(localKey, value.get(), 0);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object stored = value != null ? value.get() : null;
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            if (!dueForEarlyRefresh(entry)) {
+                return (T) entry.value();
+            }
+            if (staleWhileRevalidate) {
+                refreshInBackground(key, localKey, valueLoader);
+                return (T) entry.value();
+            }
+            return (T) join(load(key, localKey, valueLoader, true));
+        }
+        return (T) join(load(key, localKey, valueLoader, false));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        loading.remove(localKey);
+        shared.put(key, value);
+        storeLocal(localKey, value, 0);
+        invalidations.accept(localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = localKey(key);
+        ValueWrapper existing = shared.putIfAbsent(key, value);
+        storeLocal(localKey, existing != null ? existing.get() : value, 0);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        loading.remove(localKey);
+        shared.evict(key);
+        local.invalidate(localKey);
+        invalidations.accept(localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        loading.remove(localKey);
+        boolean present = shared.evictIfPresent(key);
+        local.invalidate(localKey);
+        invalidations.accept(localKey);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        loading.clear();
+        shared.clear();
+        local.invalidateAll();
+        invalidations.accept(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        loading.clear();
+        boolean present = shared.invalidate();
+        local.invalidateAll();
+        invalidations.accept(null);
+        return present;
+    }
+
+    /**
+     * Drops a key from the local tier only, after another replica changed it.
+     *
+     * @param key the string form of the cache key
+     */
+    public void evictLocal(String key) {
+        loading.remove(key);
+        local.invalidate(key);
+    }
+
+    /**
+     * Empties the local tier only, after another replica cleared the cache.
+     */
+    public void clearLocal() {
+        loading.clear();
+        local.invalidateAll();
+    }
+
+    /**
+     * Joins the load already running for the key or starts one on the calling thread.
+     *
+     * @param refresh whether the local entry is being refreshed, in which case the shared tier is skipped
+     *                since it holds the same or an older copy
+     */
+    private CompletableFuture<Object> load(Object key, String localKey, Callable<?> valueLoader, boolean refresh) {
+        CompletableFuture<Object> started = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(localKey, started);
+        if (running != null) {
+            return running;
+        }
+        try {
+            ValueWrapper cached = refresh ? null : shared.get(key);
+            if (cached != null) {
+                if (loading.remove(localKey, started)) {
+                    storeLocal(localKey, cached.get(), 0);
+                }
+                started.complete(cached.get());
+                return started;
+            }
+            long start = System.nanoTime();
+            Object value = valueLoader.call();
+            if (loading.remove(localKey, started)) {
+                // Only cache the value if no write or eviction happened while it was loading
+                shared.put(key, value);
+                storeLocal(localKey, value, System.nanoTime() - start);
+            }
+            started.complete(value);
+        } catch (Exception e) {
+            loading.remove(localKey, started);
+            ValueRetrievalException failure = new ValueRetrievalException(key, valueLoader, e);
+            started.completeExceptionally(failure);
+            throw failure;
+        }
+        return started;
+    }
+
+    /**
+     * Waits for a load. A failed load is rethrown as the {@link ValueRetrievalException} that the caller
+     * running it got, so callers that joined it see the same error.
+     */
+    private static Object join(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void refreshInBackground(Object key, String localKey, Callable<?> valueLoader) {
+        if (loading.containsKey(localKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, localKey, valueLoader, true);
+                } catch (ValueRetrievalException ignored) {
+                    // The current value stays until it expires; the next caller tries again
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // Refresh capacity exhausted: keep serving the current value
+        }
+    }
+
+    /**
+     * Decides on an early refresh: true when {@code now - loadNanos * beta * ln(random)} reaches expiry.
+     */
+    private boolean dueForEarlyRefresh(LocalEntry entry) {
+        if (earlyRefreshBeta <= 0 || entry.loadNanos() <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = -entry.loadNanos() * earlyRefreshBeta * Math.log(random);
+        return System.nanoTime() + gap >= entry.expiresAt();
+    }
+
+    private void storeLocal(String localKey, Object value, long loadNanos) {
+        local.put(localKey, new LocalEntry(value, System.nanoTime() + timeToLive.toNanos(), loadNanos));
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,173 @@
+package com.imgur.imgurservice.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Cache manager that puts a bounded Caffeine tier in front of the caches of another (Redis) manager.
+ * Only caches with local settings get the in-process tier; the others are served by the shared manager
+ * directly. Every write or eviction is published on a Redis channel, and each replica drops the key from
+ * its own local tier when it receives another replica's message. If a message is lost, the local TTL
+ * bounds how long a replica can serve a stale entry.
+ * Other process-local state derived from Redis can use the same channel through
+ * {@link #addInvalidationListener} and {@link #invalidate}.
+ * Hits, misses and evictions are published per tier as the {@code cache.*} meters, tagged
+ * {@code tier=local} or {@code tier=redis}.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final String CLEAR = "*";
+    private static final String KEY = "=";
+
+    private final CacheManager sharedCacheManager;
+    private final Map<String, LocalSettings> localSettings;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final MeterRegistry meterRegistry;
+    private final Executor refreshExecutor;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Size, lifetime and refresh behaviour of a cache's local tier.
+     *
+     * @param maximumSize          the maximum number of entries
+     * @param timeToLive           how long an entry is kept after it was written
+     * @param earlyRefreshBeta     how eagerly entries are reloaded ahead of expiry; 0 disables early refresh
+     * @param staleWhileRevalidate whether early reloads run in the background while the current value is served
+     */
+    public record LocalSettings(long maximumSize, Duration timeToLive, double earlyRefreshBeta,
+                                boolean staleWhileRevalidate) {
+
+        public LocalSettings(long maximumSize, Duration timeToLive) {
+            this(maximumSize, timeToLive, 0, false);
+        }
+    }
+
+    /**
+     * @param sharedCacheManager the manager of the shared tier
+     * @param localSettings      local tier settings by cache name
+     * @param redisTemplate      used to publish invalidations
+     * @param channel            the invalidation channel
+     * @param meterRegistry      registry for the per-tier cache meters
+     * @param refreshExecutor    runs background refreshes for caches in stale-while-revalidate mode
+     */
+    public TwoTierCacheManager(CacheManager sharedCacheManager, Map<String, LocalSettings> localSettings,
+                               StringRedisTemplate redisTemplate, String channel, MeterRegistry meterRegistry,
+                               Executor refreshExecutor) {
+        this.sharedCacheManager = sharedCacheManager;
+        this.localSettings = Map.copyOf(localSettings);
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.meterRegistry = meterRegistry;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return sharedCacheManager.getCacheNames();
+    }
+
+    /**
+     * Registers process-local state kept outside the managed caches, which is told the keys that other
+     * replicas {@link #invalidate}.
+     *
+     * @param name     the name the keys are published under; must not be the name of a cache
+     * @param listener told each invalidated key, or {@code null} when everything is invalidated
+     */
+    public void addInvalidationListener(String name, Consumer<String> listener) {
+        listeners.put(name, listener);
+    }
+
+    /**
+     * Tells the other replicas to drop a key from the local state registered under the name.
+     *
+     * @param name the name the listeners are registered under
+     * @param key  the key, or {@code null} to drop everything
+     */
+    public void invalidate(String name, String key) {
+        publish(name, key);
+    }
+
+    /**
+     * Applies another replica's invalidation to the local tier.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        String key = CLEAR.equals(parts[2]) ? null : parts[2].substring(KEY.length());
+        Consumer<String> listener = listeners.get(parts[1]);
+        if (listener != null) {
+            listener.accept(key);
+        } else if (caches.get(parts[1]) instanceof TwoTierCache cache) {
+            if (key == null) {
+                cache.clearLocal();
+            } else {
+                cache.evictLocal(key);
+            }
+        } else {
+            return;
+        }
+        Counter.builder("cache.invalidations.received")
+                .description("Local cache entries dropped because another replica changed them")
+                .tag("cache", parts[1])
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Cache createCache(String name) {
+        Cache shared = sharedCacheManager.getCache(name);
+        if (shared == null) {
+            return null;
+        }
+        if (shared instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, Tags.of("tier", "redis")).bindTo(meterRegistry);
+        }
+        LocalSettings settings = localSettings.get(name);
+        if (settings == null) {
+            return shared;
+        }
+        TwoTierCache cache = new TwoTierCache(settings, shared, key -> publish(name, key), refreshExecutor);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.getLocalCache(), name, "tier", "local");
+        return cache;
+    }
+
+    private void publish(String cacheName, String key) {
+        String message = instanceId + "\n" + cacheName + "\n" + (key == null ? CLEAR : KEY + key);
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish invalidation of cache {}; other replicas keep their copy until it expires: {}",
+                    cacheName, e.getMessage());
+        }
+    }
+}
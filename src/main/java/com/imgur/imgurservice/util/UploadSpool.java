@@ -0,0 +1,251 @@
+package com.imgur.imgurservice.util;
+
+import com.imgur.imgurservice.exception.InvalidImageException;
+import com.imgur.imgurservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bounded on-disk staging area for uploads.
+ * Multipart parts are copied here on the request thread so the async upload never depends on
+ * the servlet container's temporary file, and the image bytes never have to live on the heap.
+ */
+@Slf4j
+@Component
+public class UploadSpool {
+
+    private static final String SPOOL_SUFFIX = ".part";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int POOLED_COPY_BUFFERS = 16;
+
+    /**
+     * Direct buffers reused across copies. A pool rather than one buffer per thread, since request
+     * threads may be virtual and would each allocate their own.
+     */
+    private static final BlockingQueue<ByteBuffer> COPY_BUFFERS = new ArrayBlockingQueue<>(POOLED_COPY_BUFFERS);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Path, Long> entries = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicInteger fileCount = new AtomicInteger();
+    private Counter rejections;
+
+    public UploadSpool(@Value("${imgur.upload.spool.dir:${java.io.tmpdir}/imgur-spool}") String directory,
+                       @Value("${imgur.upload.spool.max-bytes:1073741824}") long maxBytes,
+                       @Value("${imgur.upload.spool.max-files:500}") int maxFiles,
+                       @Value("${imgur.upload.retry-after-seconds:5}") long retryAfterSeconds,
+                       MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates the spool directory, accounts for files left by a previous run and registers the occupancy
+     * metrics. Leftovers that no longer back a job are removed later by the orphan sweep.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> existing = Files.list(directory)) {
+            existing.filter(path -> path.getFileName().toString().endsWith(SPOOL_SUFFIX))
+                    .forEach(path -> {
+                        try {
+                            long size = Files.size(path);
+                            entries.put(path, size);
+                            usedBytes.addAndGet(size);
+                            fileCount.incrementAndGet();
+                        } catch (IOException e) {
+                            log.warn("Unable to account for spooled file {}: {}", path, e.getMessage());
+                        }
+                    });
+        }
+
+        Gauge.builder("imgur.upload.spool.bytes", usedBytes, AtomicLong::get)
+                .description("Bytes currently held in the upload spool")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("imgur.upload.spool.files", fileCount, AtomicInteger::get)
+                .description("Files currently held in the upload spool")
+                .register(meterRegistry);
+        Gauge.builder("imgur.upload.spool.capacity", () -> maxBytes)
+                .description("Maximum bytes the upload spool may hold")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        rejections = Counter.builder("imgur.upload.spool.rejections")
+                .description("Uploads rejected because the spool quota was reached")
+                .register(meterRegistry);
+
+        log.info("Upload spool ready at {} holding {} files ({} bytes)", directory, fileCount.get(), usedBytes.get());
+    }
+
+    /**
+     * Copies an uploaded part into the spool, computing its SHA-256 in the same pass so the bytes
+     * are only read once.
+     *
+     * @param file the uploaded part
+     * @return the spooled copy and its content hash
+     * @throws TooManyRequestsException if the spool quota would be exceeded
+     */
+    public SpooledFile spool(MultipartFile file) {
+        long size = file.getSize();
+        reserve(size);
+
+        Path target = directory.resolve(UUID.randomUUID() + SPOOL_SUFFIX);
+        String contentHash;
+        try (InputStream in = file.getInputStream();
+             ReadableByteChannel source = in instanceof FileInputStream fileIn ? fileIn.getChannel() : Channels.newChannel(in);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            long copied = copy(source, out, digest);
+            if (copied != size) {
+                throw new IOException("Expected " + size + " bytes but copied " + copied);
+            }
+            contentHash = HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            unreserve(size);
+            deleteQuietly(target);
+            log.error("Failed to spool upload {}: {}", file.getOriginalFilename(), e.getMessage());
+            throw new InvalidImageException("Unable to read uploaded file");
+        }
+
+        entries.put(target, size);
+        return new SpooledFile(target, contentHash);
+    }
+
+    /**
+     * Removes a spooled file and returns its space to the quota.
+     * Safe to call more than once for the same path.
+     *
+     * @param path the spooled file
+     */
+    public void release(Path path) {
+        if (path == null) {
+            return;
+        }
+        Long size = entries.remove(path);
+        deleteQuietly(path);
+        if (size != null) {
+            unreserve(size);
+        }
+    }
+
+    /**
+     * Lists the spooled files last modified before the given time, as candidates for the orphan sweep.
+     *
+     * @param cutoff files modified at or after this time are left out
+     * @return the files, in no particular order
+     */
+    public List<Path> filesOlderThan(Instant cutoff) {
+        try (Stream<Path> existing = Files.list(directory)) {
+            return existing.filter(path -> path.getFileName().toString().endsWith(SPOOL_SUFFIX))
+                    .filter(path -> {
+                        try {
+                            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+                        } catch (IOException e) {
+                            return false; // Released meanwhile
+                        }
+                    })
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Unable to list the upload spool {}: {}", directory, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void reserve(long size) {
+        long bytes = usedBytes.addAndGet(size);
+        int files = fileCount.incrementAndGet();
+        if (bytes > maxBytes || files > maxFiles) {
+            unreserve(size);
+            rejections.increment();
+            throw new TooManyRequestsException("Upload spool is full, please retry later", retryAfterSeconds);
+        }
+    }
+
+    private void unreserve(long size) {
+        usedBytes.addAndGet(-size);
+        fileCount.decrementAndGet();
+    }
+
+    /**
+     * Streams the source into the target through a pooled direct buffer, feeding every chunk to the digest.
+     * A buffer is only allocated when all pooled ones are in use, and is kept if the pool has room for it.
+     */
+    private static long copy(ReadableByteChannel source, FileChannel target, MessageDigest digest) throws IOException {
+        ByteBuffer pooled = COPY_BUFFERS.poll();
+        ByteBuffer buffer = pooled != null ? pooled : ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        try {
+            long copied = 0;
+            while (source.read(buffer) >= 0 || buffer.position() > 0) {
+                buffer.flip();
+                ByteBuffer hashed = buffer.duplicate();
+                digest.update(hashed);
+                while (buffer.hasRemaining()) {
+                    copied += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return copied;
+        } finally {
+            buffer.clear();
+            COPY_BUFFERS.offer(buffer);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Unable to delete spooled file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * A file held in the spool.
+     *
+     * @param path        location of the spooled copy
+     * @param contentHash hex-encoded SHA-256 of the content
+     */
+    public record SpooledFile(Path path, String contentHash) {
+    }
+}
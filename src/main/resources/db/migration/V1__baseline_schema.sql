@@ -0,0 +1,58 @@
+-- Baseline schema for the persistent profile.
+-- Generated keys are stored as native 16-byte UUIDs; the entities keep them as strings and the
+-- driver converts in both directions.
+
+create table user_entity (
+    id       uuid         not null,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    email    varchar(255),
+    constraint pk_user_entity primary key (id),
+    constraint uk_user_entity_username unique (username)
+);
+
+create table image_entity (
+    id           uuid         not null,
+    image_url    varchar(255) not null,
+    delete_hash  varchar(255) not null,
+    content_hash varchar(64),
+    user_id      uuid         not null,
+    constraint pk_image_entity primary key (id),
+    constraint fk_image_entity_user foreign key (user_id) references user_entity (id)
+);
+
+-- Keyset pages and full listings of one user's images
+create index idx_image_user_id_id on image_entity (user_id, id);
+-- Re-uploads of the same content
+create index idx_image_content_hash on image_entity (content_hash);
+-- Whether an Imgur image is still shared before it is deleted
+create index idx_image_delete_hash on image_entity (delete_hash);
+
+create table upload_job_entity (
+    id                uuid                        not null,
+    username          varchar(255)                not null,
+    status            varchar(16)                 not null,
+    original_filename varchar(255),
+    spool_path        varchar(1024),
+    content_length    bigint                      not null,
+    content_hash      varchar(64),
+    image_id          uuid,
+    image_url         varchar(255),
+    error_message     varchar(1024),
+    created_at        timestamp(6) with time zone not null,
+    updated_at        timestamp(6) with time zone not null,
+    constraint pk_upload_job_entity primary key (id)
+);
+
+create index idx_upload_job_status_updated on upload_job_entity (status, updated_at);
+
+create table remote_delete_entity (
+    delete_hash     varchar(255)                not null,
+    attempts        integer                     not null,
+    last_error      varchar(1024),
+    created_at      timestamp(6) with time zone,
+    next_attempt_at timestamp(6) with time zone,
+    constraint pk_remote_delete_entity primary key (delete_hash)
+);
+
+create index idx_remote_delete_next_attempt on remote_delete_entity (next_attempt_at);
@@ -0,0 +1,8 @@
+-- Pending Imgur deletes become an outbox: rows are written with the change that orphans the image
+-- and claimed by the relay pass that sends them.
+alter table remote_delete_entity add column claim_token varchar(36);
+
+create index idx_remote_delete_claim_token on remote_delete_entity (claim_token);
+
+-- Imgur image of an upload job, recorded before the image row is saved
+alter table upload_job_entity add column delete_hash varchar(255);
@@ -0,0 +1,5 @@
+-- Claims on upload jobs are held under a lease that the worker renews; only lapsed claims are recovered.
+alter table upload_job_entity add column claim_token varchar(36);
+alter table upload_job_entity add column lease_until timestamp(6) with time zone;
+
+create index idx_upload_job_claim_token on upload_job_entity (claim_token);
@@ -0,0 +1,14 @@
+-- Checks whether Imgur has credit left for a request, without reserving it.
+-- KEYS[1]  bucket hash
+-- ARGV[1]  cost of the request in credits
+-- ARGV[2]  credits to keep in reserve
+-- Returns 0 if the request can be admitted, otherwise the ms until Imgur resets the credits.
+local clock = redis.call('TIME')
+local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+local state = redis.call('HMGET', KEYS[1], 'remaining', 'reset')
+local remaining = tonumber(state[1])
+local reset = tonumber(state[2])
+if remaining and reset and reset > now and remaining - tonumber(ARGV[1]) < tonumber(ARGV[2]) then
+    return reset - now
+end
+return 0
@@ -0,0 +1,25 @@
+-- Feeds the credit Imgur reported in its response headers into the shared token bucket.
+-- The remaining credit is spread evenly over the time left until the reset.
+-- KEYS[1]  bucket hash
+-- ARGV[1]  remaining credits reported by Imgur
+-- ARGV[2]  ms until Imgur resets the credits
+-- ARGV[3]  burst capacity
+-- ARGV[4]  credits to keep in reserve
+-- ARGV[5]  key expiry, in ms
+local clock = redis.call('TIME')
+local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+local remaining = tonumber(ARGV[1])
+local window = math.max(1000, tonumber(ARGV[2]))
+local burst = tonumber(ARGV[3])
+local usable = math.max(0, remaining - tonumber(ARGV[4]))
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts', 'rate')
+local tokens = tonumber(state[1]) or burst
+local ts = tonumber(state[2]) or now
+local rate = tonumber(state[3]) or 0
+tokens = math.min(burst, tokens + math.max(0, now - ts) * rate, usable)
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now), 'rate', tostring(usable / window),
+        'remaining', tostring(remaining), 'reset', tostring(now + window))
+redis.call('PEXPIRE', KEYS[1], math.max(tonumber(ARGV[5]), window))
+return usable
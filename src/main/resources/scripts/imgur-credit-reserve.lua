@@ -0,0 +1,57 @@
+-- Reserves Imgur credit from the shared token bucket.
+-- KEYS[1]  bucket hash
+-- ARGV[1]  cost of the request in credits
+-- ARGV[2]  burst capacity
+-- ARGV[3]  refill rate (credits per ms) to use until Imgur has reported its limits
+-- ARGV[4]  credits to keep in reserve
+-- ARGV[5]  longest wait the caller accepts, in ms
+-- ARGV[6]  key expiry, in ms
+-- Returns the ms to wait before sending (>= 0), or the negated ms until credit is available again
+-- when the request cannot be admitted; nothing is reserved in that case.
+local clock = redis.call('TIME')
+local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+local cost = tonumber(ARGV[1])
+local burst = tonumber(ARGV[2])
+local defaultRate = tonumber(ARGV[3])
+local reserve = tonumber(ARGV[4])
+local maxWait = tonumber(ARGV[5])
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts', 'rate', 'remaining', 'reset')
+local tokens = tonumber(state[1]) or burst
+local ts = tonumber(state[2]) or now
+local rate = tonumber(state[3]) or defaultRate
+local remaining = tonumber(state[4])
+local reset = tonumber(state[5])
+
+-- Past the reset Imgur's counters are full again; pace with the default rate until the next response
+if reset and now >= reset then
+    remaining = nil
+    reset = nil
+    rate = defaultRate
+end
+
+if remaining and remaining - cost < reserve then
+    return -math.max(1, reset - now)
+end
+
+tokens = math.min(burst, tokens + math.max(0, now - ts) * rate)
+local wait = 0
+if tokens < cost then
+    if rate <= 0 then
+        return -(reset and math.max(1, reset - now) or maxWait)
+    end
+    wait = math.ceil((cost - tokens) / rate)
+    if wait > maxWait then
+        return -wait
+    end
+end
+
+tokens = tokens - cost
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now), 'rate', tostring(rate))
+if remaining then
+    redis.call('HSET', KEYS[1], 'remaining', tostring(remaining - cost))
+else
+    redis.call('HDEL', KEYS[1], 'remaining', 'reset')
+end
+redis.call('PEXPIRE', KEYS[1], ARGV[6])
+return wait
@@ -0,0 +1,14 @@
+-- Checks whether a login may be attempted, without counting it.
+-- KEYS[1]  failed attempts for the username
+-- KEYS[2]  failed attempts from the client address
+-- ARGV[1]  failures allowed per username within the window
+-- ARGV[2]  failures allowed per address within the window
+-- Returns 0 if the login may go ahead, otherwise the ms until the blocking counter expires.
+local wait = 0
+for i = 1, 2 do
+    local failures = tonumber(redis.call('GET', KEYS[i]))
+    if failures and failures >= tonumber(ARGV[i]) then
+        wait = math.max(wait, redis.call('PTTL', KEYS[i]))
+    end
+end
+return wait
@@ -0,0 +1,12 @@
+-- Counts a failed login against the username and the client address.
+-- KEYS[1]  failed attempts for the username
+-- KEYS[2]  failed attempts from the client address
+-- ARGV[1]  window in ms, started by the first failure
+-- Returns the failure count for the username.
+for i = 1, 2 do
+    redis.call('INCR', KEYS[i])
+    if redis.call('PTTL', KEYS[i]) < 0 then
+        redis.call('PEXPIRE', KEYS[i], ARGV[1])
+    end
+end
+return tonumber(redis.call('GET', KEYS[1]))
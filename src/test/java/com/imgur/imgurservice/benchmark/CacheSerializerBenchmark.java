@@ -0,0 +1,72 @@
+package com.imgur.imgurservice.benchmark;
+
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.model.UserResponse;
+import com.imgur.imgurservice.util.CompactCacheSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compares the JSON cache serializer with the compact binary one on payload size and
+ * serialize/deserialize time, for a user and for image lists of typical account sizes.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class CacheSerializerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 50_000;
+
+    @Test
+    public void compareJsonAndCompactSerializers() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        CompactCacheSerializer compact = new CompactCacheSerializer(1024);
+        CompactCacheSerializer uncompressed = new CompactCacheSerializer(0);
+
+        Object user = new UserResponse(UUID.randomUUID().toString(), "someuser", "someuser@example.com");
+        for (Object value : List.of(user, images(10), images(100), images(1_000))) {
+            String label = value instanceof List<?> list ? list.size() + " images" : "user";
+            report(label, "json", json, value);
+            report(label, "compact", uncompressed, value);
+            report(label, "compact+gzip>1KB", compact, value);
+        }
+    }
+
+    private static void report(String label, String format, RedisSerializer<Object> serializer, Object value) {
+        int rounds = value instanceof List<?> list && list.size() >= 1_000 ? MEASURED_ROUNDS / 20 : MEASURED_ROUNDS;
+        for (int i = 0; i < WARMUP_ROUNDS / 10; i++) {
+            serializer.deserialize(serializer.serialize(value));
+        }
+
+        byte[] bytes = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            bytes = serializer.serialize(value);
+        }
+        long serializeNanos = (System.nanoTime() - start) / rounds;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            serializer.deserialize(bytes);
+        }
+        long deserializeNanos = (System.nanoTime() - start) / rounds;
+
+        System.out.printf("%-12s %-18s bytes=%-8d serialize=%6.1fus deserialize=%6.1fus%n",
+                label, format, bytes.length, serializeNanos / 1e3, deserializeNanos / 1e3);
+    }
+
+    private static List<ImageResponse> images(int count) {
+        List<ImageResponse> images = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = UUID.randomUUID().toString();
+            images.add(new ImageResponse(id, "https://i.imgur.com/" + id.substring(0, 7) + ".jpg"));
+        }
+        return images;
+    }
+}
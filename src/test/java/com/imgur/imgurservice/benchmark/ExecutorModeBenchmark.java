@@ -0,0 +1,109 @@
+package com.imgur.imgurservice.benchmark;
+
+import com.imgur.imgurservice.util.BoundedVirtualThreadExecutor;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load benchmark comparing the platform thread pools with the virtual-thread execution mode.
+ * Each task simulates an upload: a blocking Imgur call followed by a short database write.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class ExecutorModeBenchmark {
+
+    private static final int TASKS = 4_000;
+    private static final long SUBMIT_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(500); // 2000 tasks/s offered
+    private static final long IMGUR_LATENCY_MS = 100;
+    private static final long DATABASE_LATENCY_MS = 5;
+
+    @Test
+    public void comparePlatformAndVirtualThreads() throws Exception {
+        ThreadPoolTaskExecutor platform = new ThreadPoolTaskExecutor();
+        platform.setCorePoolSize(10);
+        platform.setMaxPoolSize(50);
+        platform.setQueueCapacity(100);
+        platform.setThreadNamePrefix("BenchPlatform-");
+        platform.initialize();
+        try {
+            report("platform (10-50 threads, queue 100)",
+                    run(platform, new ResourceLimiter("imgur", 50, 30_000), new ResourceLimiter("database", 200, 30_000)));
+        } finally {
+            platform.shutdown();
+        }
+
+        try (BoundedVirtualThreadExecutor virtual = new BoundedVirtualThreadExecutor("BenchVirtual-", 150)) {
+            report("virtual (150 admitted, 50 Imgur permits)",
+                    run(virtual, new ResourceLimiter("imgur", 50, 30_000), new ResourceLimiter("database", 200, 30_000)));
+        }
+
+        try (BoundedVirtualThreadExecutor virtual = new BoundedVirtualThreadExecutor("BenchVirtual-", 1_000)) {
+            report("virtual (1000 admitted, 500 Imgur permits)",
+                    run(virtual, new ResourceLimiter("imgur", 500, 30_000), new ResourceLimiter("database", 200, 30_000)));
+        }
+    }
+
+    private Result run(Executor executor, ResourceLimiter imgurLimiter, ResourceLimiter databaseLimiter) throws InterruptedException {
+        long[] latencies = new long[TASKS];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(TASKS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            long submitted = System.nanoTime();
+            int index = i;
+            try {
+                executor.execute(() -> {
+                    imgurLimiter.run(() -> sleep(IMGUR_LATENCY_MS));
+                    databaseLimiter.run(() -> sleep(DATABASE_LATENCY_MS));
+                    latencies[index] = System.nanoTime() - submitted;
+                    completed.incrementAndGet();
+                    done.countDown();
+                });
+            } catch (RejectedExecutionException e) {
+                latencies[index] = -1;
+                rejected.incrementAndGet();
+                done.countDown();
+            }
+            while (System.nanoTime() - submitted < SUBMIT_INTERVAL_NANOS) {
+                Thread.onSpinWait();
+            }
+        }
+        done.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        long[] accepted = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        long p50 = accepted.length == 0 ? 0 : accepted[(int) (accepted.length * 0.50)];
+        long p99 = accepted.length == 0 ? 0 : accepted[Math.min(accepted.length - 1, (int) (accepted.length * 0.99))];
+        return new Result(completed.get(), rejected.get(), elapsed, p50, p99);
+    }
+
+    private static void report(String mode, Result result) {
+        System.out.printf("%-45s completed=%d rejected=%d throughput=%.0f/s p50=%dms p99=%dms%n",
+                mode, result.completed(), result.rejected(),
+                result.completed() / (result.elapsedNanos() / 1e9),
+                TimeUnit.NANOSECONDS.toMillis(result.p50Nanos()),
+                TimeUnit.NANOSECONDS.toMillis(result.p99Nanos()));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(int completed, int rejected, long elapsedNanos, long p50Nanos, long p99Nanos) {
+    }
+}
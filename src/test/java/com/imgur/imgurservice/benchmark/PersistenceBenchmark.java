@@ -0,0 +1,132 @@
+package com.imgur.imgurservice.benchmark;
+
+import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.entity.UserEntity;
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.repository.ImageRepository;
+import com.imgur.imgurservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures insert and list throughput of the persistent profile: a file-backed H2 database with the
+ * Flyway schema and batched inserts. Inserts {@code benchmark.rows} images (10 million by default)
+ * spread over {@code benchmark.users} users, then pages through randomly chosen users' images.
+ * The database is written under the temporary directory and left there for inspection.
+ * Run with {@code ./gradlew benchmark}; pass {@code -Dbenchmark.rows=...} for a quicker run.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("persistent")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PersistenceBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final int USERS = Integer.getInteger("benchmark.users", 1_000);
+    private static final int INSERT_CHUNK = 10_000;
+    private static final int PAGE_SIZE = 200;
+    private static final int LISTED_USERS = 200;
+
+    private static final Path DATABASE = Path.of(System.getProperty("java.io.tmpdir"),
+            "imgur-benchmark-" + UUID.randomUUID(), "imgurData");
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void fileDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + DATABASE + ";DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    @Test
+    public void insertAndListThroughput() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        List<UserEntity> users = transaction.execute(status -> {
+            List<UserEntity> created = new ArrayList<>(USERS);
+            for (int i = 0; i < USERS; i++) {
+                UserEntity user = new UserEntity();
+                user.setUsername("user" + i);
+                user.setPassword("password");
+                created.add(user);
+            }
+            return userRepository.saveAll(created);
+        });
+
+        long start = System.nanoTime();
+        for (int from = 0; from < ROWS; from += INSERT_CHUNK) {
+            int chunkStart = from;
+            transaction.executeWithoutResult(status -> {
+                List<ImageEntity> images = new ArrayList<>(INSERT_CHUNK);
+                for (int i = chunkStart; i < Math.min(ROWS, chunkStart + INSERT_CHUNK); i++) {
+                    ImageEntity image = new ImageEntity();
+                    image.setImageUrl("https://i.imgur.com/" + Integer.toString(i, 36) + ".jpg");
+                    image.setDeleteHash(Integer.toString(i, 36));
+                    image.setUser(users.get(i % USERS));
+                    images.add(image);
+                }
+                imageRepository.saveAll(images);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        double insertSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("insert  rows=%-10d %8.1fs %10.0f rows/s%n", ROWS, insertSeconds, ROWS / insertSeconds);
+
+        long listed = 0;
+        long pages = 0;
+        long firstPageNanos = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < LISTED_USERS; i++) {
+            String username = users.get(ThreadLocalRandom.current().nextInt(USERS)).getUsername();
+            long pageStart = System.nanoTime();
+            List<ImageResponse> page = imageRepository.findPageByUsername(username, Limit.of(PAGE_SIZE));
+            firstPageNanos += System.nanoTime() - pageStart;
+            while (!page.isEmpty()) {
+                listed += page.size();
+                pages++;
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                page = imageRepository.findPageByUsernameAfter(username, page.get(page.size() - 1).getImageId(),
+                        Limit.of(PAGE_SIZE));
+            }
+        }
+        double listSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("list    users=%-9d %8.1fs %10.0f rows/s %8.0f pages/s  first page %.2fms%n",
+                LISTED_USERS, listSeconds, listed / listSeconds, pages / listSeconds,
+                firstPageNanos / 1e6 / LISTED_USERS);
+    }
+}
@@ -0,0 +1,136 @@
+package com.imgur.imgurservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imgur.imgurservice.exception.ImgurApiException;
+import com.imgur.imgurservice.model.Imgurmodel.ImgurResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * JUnit test class for the HttpImgurClient, run against a local stub of the Imgur API.
+ */
+public class HttpImgurClientTest {
+
+    private HttpServer server;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HttpImgurClient imgurClient;
+
+    private final ImgurRateLimiter rateLimiter = mock(ImgurRateLimiter.class);
+
+    private final AtomicReference<String> lastRequestBody = new AtomicReference<>();
+
+    private final AtomicReference<String> lastAuthorization = new AtomicReference<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/3/image", exchange -> {
+            lastAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            lastRequestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            String path = exchange.getRequestURI().getPath();
+            int status = path.endsWith("/broken") ? 500 : path.endsWith("/busy") ? 429 : 200;
+            if (status == 429) {
+                exchange.getResponseHeaders().add("Retry-After", "7");
+            }
+            exchange.getResponseHeaders().add("X-RateLimit-ClientRemaining", "12345");
+            byte[] body = "POST".equals(exchange.getRequestMethod())
+                    ? "{\"data\":{\"link\":\"http://i.imgur.com/abc.jpg\",\"deletehash\":\"hash\"},\"success\":true,\"status\":200}".getBytes()
+                    : "{\"success\":true}".getBytes();
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/3/image";
+        meterRegistry = new SimpleMeterRegistry();
+        imgurClient = new HttpImgurClient(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                rateLimiter, Runnable::run, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(imgurClient, "uploadUrl", baseUrl);
+        ReflectionTestUtils.setField(imgurClient, "deleteUrl", baseUrl);
+        ReflectionTestUtils.setField(imgurClient, "clientId", "test-client-id");
+        ReflectionTestUtils.setField(imgurClient, "responseTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(imgurClient, "readTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(imgurClient, "uploadMinBytesPerSecond", 1000L);
+        ReflectionTestUtils.setField(imgurClient, "uploadMaxSendMs", 60000L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testUpload_SendsMultipartAndParsesResponse() {
+        // Arrange
+        ByteArrayResource image = new ByteArrayResource("image-bytes".getBytes()) {
+            @Override
+            public String getFilename() {
+                return "cat.jpg";
+            }
+        };
+
+        // Act
+        ImgurResponse response = imgurClient.upload(image);
+
+        // Assert
+        assertEquals("http://i.imgur.com/abc.jpg", response.getData().getLink());
+        assertEquals("hash", response.getData().getDeletehash());
+        assertEquals("Client-ID test-client-id", lastAuthorization.get());
+        assertTrue(lastRequestBody.get().contains("name=\"image\"; filename=\"cat.jpg\""));
+        assertTrue(lastRequestBody.get().contains("image-bytes"));
+        assertEquals(1, meterRegistry.get("imgur.client.requests").tag("route", "upload").tag("status", "200").timer().count());
+        verify(rateLimiter).observe(argThat(headers ->
+                headers.firstValueAsLong("X-RateLimit-ClientRemaining").orElse(-1) == 12345));
+    }
+
+    @Test
+    public void testDelete_Success() {
+        // Act & Assert
+        assertDoesNotThrow(() -> imgurClient.delete("hash"));
+        assertEquals(1, meterRegistry.get("imgur.client.requests").tag("route", "delete").tag("status", "200").timer().count());
+    }
+
+    @Test
+    public void testDelete_ServerErrorThrows() {
+        // Act & Assert
+        ImgurApiException exception = assertThrows(ImgurApiException.class, () -> imgurClient.delete("broken"));
+        assertEquals(500, exception.getStatusCode());
+    }
+
+    @Test
+    public void testDelete_RateLimitedCarriesRetryAfter() {
+        // Act & Assert
+        ImgurApiException exception = assertThrows(ImgurApiException.class, () -> imgurClient.delete("busy"));
+        assertEquals(429, exception.getStatusCode());
+        assertEquals(7000L, exception.getRetryAfterMs());
+        assertTrue(exception.isRetryableResponse());
+    }
+
+    @Test
+    public void testUploadSendBudget_ScalesWithBodySize() {
+        // Act & Assert
+        assertEquals(5000, imgurClient.uploadSendBudgetMs(5000));
+        assertEquals(60000, imgurClient.uploadSendBudgetMs(10_000_000));
+        assertEquals(60000, imgurClient.uploadSendBudgetMs(-1));
+    }
+}
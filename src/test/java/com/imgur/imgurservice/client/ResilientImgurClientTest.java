@@ -0,0 +1,181 @@
+package com.imgur.imgurservice.client;
+
+import com.imgur.imgurservice.exception.ImgurApiException;
+import com.imgur.imgurservice.model.Imgurmodel.ImgurResponse;
+import com.imgur.imgurservice.util.InFlightLimiter;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * JUnit test class for the ResilientImgurClient.
+ */
+public class ResilientImgurClientTest {
+
+    @Mock
+    private HttpImgurClient delegate;
+
+    @Mock
+    private ImgurRateLimiter rateLimiter;
+
+    private ScheduledExecutorService scheduler;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private ResilientImgurClient imgurClient;
+
+    private final Resource image = new ByteArrayResource("image-bytes".getBytes());
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        imgurClient = client(Runnable::run);
+    }
+
+    private ResilientImgurClient client(Executor rateLimitExecutor) {
+        return new ResilientImgurClient(delegate, rateLimiter, new InFlightLimiter("upload", 2, 10),
+                new InFlightLimiter("delete", 2, 10), scheduler, rateLimitExecutor, circuitBreakerRegistry,
+                RetryRegistry.ofDefaults(), 3, 10L, 2.0, 0.5, 1000L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testUpload_RetriesServerErrorThenSucceeds() {
+        // Arrange
+        ImgurResponse response = new ImgurResponse();
+        when(delegate.uploadAsync(any(Resource.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ImgurApiException("unavailable", 503)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        // Act
+        ImgurResponse result = imgurClient.upload(image);
+
+        // Assert
+        assertSame(response, result);
+        verify(delegate, times(2)).uploadAsync(image);
+    }
+
+    @Test
+    public void testUpload_DoesNotRetryClientErrorOrTimeout() {
+        // Arrange
+        when(delegate.uploadAsync(any(Resource.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ImgurApiException("bad request", 400)))
+                .thenReturn(CompletableFuture.failedFuture(new ImgurApiException("timed out", 0)));
+
+        // Act & Assert
+        assertEquals(400, assertThrows(ImgurApiException.class, () -> imgurClient.upload(image)).getStatusCode());
+        assertEquals(0, assertThrows(ImgurApiException.class, () -> imgurClient.upload(image)).getStatusCode());
+        verify(delegate, times(2)).uploadAsync(image);
+    }
+
+    @Test
+    public void testDelete_RetriesTransportFailureUpToMaxAttempts() {
+        // Arrange
+        when(delegate.deleteAsync("hash"))
+                .thenAnswer(invocation -> CompletableFuture.failedFuture(new ImgurApiException("timed out", 0)));
+
+        // Act & Assert
+        assertThrows(ImgurApiException.class, () -> imgurClient.delete("hash"));
+        verify(delegate, times(3)).deleteAsync("hash");
+    }
+
+    @Test
+    public void testDelete_DoesNotWaitForLongRetryAfter() {
+        // Arrange
+        when(delegate.deleteAsync("hash"))
+                .thenReturn(CompletableFuture.failedFuture(new ImgurApiException("rate limited", 429, 3_600_000L)));
+
+        // Act & Assert
+        assertEquals(429, assertThrows(ImgurApiException.class, () -> imgurClient.delete("hash")).getStatusCode());
+        verify(delegate, times(1)).deleteAsync("hash");
+    }
+
+    @Test
+    public void testOpenBreaker_FailsFastWithoutCallingImgur() {
+        // Arrange
+        circuitBreakerRegistry.circuitBreaker(ResilientImgurClient.UPLOAD_INSTANCE).transitionToOpenState();
+
+        // Act & Assert
+        assertThrows(CallNotPermittedException.class, () -> imgurClient.upload(image));
+        verify(delegate, never()).uploadAsync(any(Resource.class));
+        assertEquals(CircuitBreaker.State.CLOSED,
+                circuitBreakerRegistry.circuitBreaker(ResilientImgurClient.DELETE_INSTANCE).getState());
+    }
+
+    @Test
+    public void testUpload_CreditExhaustedIsNotSentToImgur() {
+        // Arrange
+        when(rateLimiter.getUploadCost()).thenReturn(10);
+        when(rateLimiter.reserve(10)).thenThrow(new ImgurApiException("Imgur credit exhausted", 429, 3_600_000L));
+
+        // Act & Assert
+        ImgurApiException exception = assertThrows(ImgurApiException.class, () -> imgurClient.upload(image));
+        assertEquals(429, exception.getStatusCode());
+        verify(delegate, never()).uploadAsync(any(Resource.class));
+    }
+
+    @Test
+    public void testUpload_PacedAttemptIsSentAfterDelay() {
+        // Arrange
+        ImgurResponse response = new ImgurResponse();
+        when(rateLimiter.getUploadCost()).thenReturn(10);
+        when(rateLimiter.reserve(10)).thenReturn(20L);
+        when(delegate.uploadAsync(any(Resource.class))).thenReturn(CompletableFuture.completedFuture(response));
+
+        // Act
+        ImgurResponse result = imgurClient.upload(image);
+
+        // Assert
+        assertSame(response, result);
+        verify(rateLimiter).reserve(10);
+    }
+
+    @Test
+    public void testUpload_ReservesCreditOnRateLimitExecutor() {
+        // Arrange
+        ExecutorService rateLimitExecutor = Executors.newSingleThreadExecutor();
+        AtomicReference<Thread> reservingThread = new AtomicReference<>();
+        when(rateLimiter.getUploadCost()).thenReturn(10);
+        when(rateLimiter.reserve(10)).thenAnswer(invocation -> {
+            reservingThread.set(Thread.currentThread());
+            return 0L;
+        });
+        when(delegate.uploadAsync(any(Resource.class))).thenReturn(CompletableFuture.completedFuture(new ImgurResponse()));
+
+        try {
+            // Act
+            client(rateLimitExecutor).upload(image);
+
+            // Assert
+            assertNotNull(reservingThread.get());
+            assertNotSame(Thread.currentThread(), reservingThread.get());
+        } finally {
+            rateLimitExecutor.shutdownNow();
+        }
+    }
+}
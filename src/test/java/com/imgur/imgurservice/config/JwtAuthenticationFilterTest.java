@@ -0,0 +1,109 @@
+package com.imgur.imgurservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.imgur.imgurservice.model.AuthenticatedUser;
+import com.imgur.imgurservice.util.JwtTokenManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the JwtAuthenticationFilter.
+ */
+public class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "9a4f2c8d3b7e6f1a0c5d8e2b4f7a9c3e6d1b8f0a2c4e7d9b3f5a8c1e6d0b2f4a";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JwtTokenManager jwtTokenManager;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenManager = new JwtTokenManager(SECRET, 100, meterRegistry);
+        filter = new JwtAuthenticationFilter(jwtTokenManager, new ObjectMapper().registerModule(new JavaTimeModule()),
+                meterRegistry);
+    }
+
+    @Test
+    public void testValidToken_SetsPrincipalAndContinues() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/images");
+        request.addHeader("Authorization", "Bearer " + jwtTokenManager.generateToken("testUser"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        AuthenticatedUser user = (AuthenticatedUser) request.getAttribute(AuthenticatedUser.ATTRIBUTE);
+        assertEquals("testUser", user.username());
+        assertNotNull(chain.getRequest());
+        assertEquals("testUser", ((HttpServletRequest) chain.getRequest()).getRemoteUser());
+        assertEquals(1, meterRegistry.get("auth.token.verification").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    public void testInvalidToken_RejectedBeforeReachingController() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/images");
+        request.addHeader("Authorization", "Bearer not-a-token");
+        request.setContentType("multipart/form-data; boundary=xyz");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertTrue(response.getContentAsString().contains("Access denied"));
+        assertEquals(1, meterRegistry.get("auth.token.verification").tag("outcome", "invalid").timer().count());
+    }
+
+    @Test
+    public void testTokenWithoutBearerScheme_RejectedAsMissing() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/user/testUser");
+        request.addHeader("Authorization", jwtTokenManager.generateToken("testUser"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertTrue(response.getContentAsString().contains("Missing bearer token"));
+        assertEquals(1, meterRegistry.get("auth.token.verification").tag("outcome", "missing").timer().count());
+        assertEquals(0, meterRegistry.get("auth.token.verification").tag("outcome", "invalid").timer().count());
+    }
+
+    @Test
+    public void testLogin_PassesWithoutToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertSame(request, chain.getRequest());
+    }
+}
@@ -0,0 +1,89 @@
+package com.imgur.imgurservice.repository;
+
+import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.entity.UserEntity;
+import com.imgur.imgurservice.model.ImageResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JPA test class for the ImageRepository listing queries, counting the SQL statements they issue.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ImageRepositoryTest {
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<String> imageIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUsername("testuser");
+        user.setPassword("password");
+        entityManager.persist(user);
+        for (int i = 0; i < 3; i++) {
+            ImageEntity image = new ImageEntity();
+            image.setImageUrl("https://i.imgur.com/" + i + ".png");
+            image.setDeleteHash("hash" + i);
+            image.setUser(user);
+            imageIds.add(entityManager.persist(image).getId());
+        }
+        imageIds.sort(null);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindPageByUsername_OneStatementWithoutLoadingEntities() {
+        // Act
+        List<ImageResponse> page = imageRepository.findPageByUsername("testuser", Limit.of(2));
+
+        // Assert
+        assertEquals(imageIds.subList(0, 2), page.stream().map(ImageResponse::getImageId).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindPageByUsernameAfter_SeeksPastCursorInOneStatement() {
+        // Act
+        List<ImageResponse> page = imageRepository.findPageByUsernameAfter("testuser", imageIds.get(1), Limit.of(2));
+
+        // Assert
+        assertEquals(List.of(imageIds.get(2)), page.stream().map(ImageResponse::getImageId).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindPageByUsername_UnknownUserIsEmpty() {
+        // Act & Assert
+        assertTrue(imageRepository.findPageByUsername("nobody", Limit.of(2)).isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,192 @@
+package com.imgur.imgurservice.repository;
+
+import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.entity.RemoteDeleteEntity;
+import com.imgur.imgurservice.entity.UploadJobEntity;
+import com.imgur.imgurservice.entity.UploadJobStatus;
+import com.imgur.imgurservice.entity.UserEntity;
+import com.imgur.imgurservice.model.ImageResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JPA test class running the repositories against the schema built by the Flyway migrations of the
+ * persistent profile, with JDBC batching enabled as in the main configuration.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("persistent")
+public class PersistentSchemaTest {
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UploadJobRepository uploadJobRepository;
+
+    @Autowired
+    private RemoteDeleteRepository remoteDeleteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testMigration_StoresKeysAsNativeUuids() {
+        // Act
+        Object imageIdType = entityManager.getEntityManager().createNativeQuery(
+                "select data_type from information_schema.columns where table_name = 'IMAGE_ENTITY' and column_name = 'ID'")
+                .getSingleResult();
+        Object userIdType = entityManager.getEntityManager().createNativeQuery(
+                "select data_type from information_schema.columns where table_name = 'IMAGE_ENTITY' and column_name = 'USER_ID'")
+                .getSingleResult();
+
+        // Assert
+        assertEquals("UUID", imageIdType);
+        assertEquals("UUID", userIdType);
+    }
+
+    @Test
+    public void testSaveAll_BatchesInsertsAndPagesThroughUuidKeys() {
+        // Arrange
+        UserEntity user = entityManager.persistFlushFind(user("testuser"));
+        List<ImageEntity> images = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            images.add(image(user, i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        imageRepository.saveAll(images);
+        entityManager.flush();
+        entityManager.clear();
+        List<ImageResponse> firstPage = imageRepository.findPageByUsername("testuser", Limit.of(15));
+        List<ImageResponse> secondPage = imageRepository.findPageByUsernameAfter("testuser",
+                firstPage.get(firstPage.size() - 1).getImageId(), Limit.of(15));
+
+        // Assert
+        // One statement for all 20 inserts, one per page
+        assertEquals(3, statistics.getPrepareStatementCount());
+        List<String> expected = images.stream().map(ImageEntity::getId).sorted().toList();
+        List<String> listed = new ArrayList<>();
+        firstPage.forEach(image -> listed.add(image.getImageId()));
+        secondPage.forEach(image -> listed.add(image.getImageId()));
+        assertEquals(expected, listed);
+    }
+
+    @Test
+    public void testJobsAndRemoteDeletes_RoundTrip() {
+        // Arrange
+        Instant now = Instant.now();
+        UploadJobEntity job = new UploadJobEntity();
+        job.setUsername("testuser");
+        job.setStatus(UploadJobStatus.PENDING);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        RemoteDeleteEntity failed = new RemoteDeleteEntity();
+        failed.setDeleteHash("hashA");
+        failed.setAttempts(1);
+        failed.setCreatedAt(now);
+        failed.setNextAttemptAt(now.minusSeconds(1));
+
+        // Act
+        String jobId = uploadJobRepository.saveAndFlush(job).getId();
+        remoteDeleteRepository.saveAndFlush(failed);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(UploadJobStatus.PENDING, uploadJobRepository.findById(jobId).orElseThrow().getStatus());
+        assertEquals(List.of("hashA"), remoteDeleteRepository
+                .findByNextAttemptAtBeforeOrderByNextAttemptAt(now, PageRequest.of(0, 10)).stream()
+                .map(RemoteDeleteEntity::getDeleteHash).toList());
+    }
+
+    @Test
+    public void testClaim_EachDueDeleteIsClaimedOnce() {
+        // Arrange
+        Instant now = Instant.now();
+        remoteDeleteRepository.saveAll(List.of(new RemoteDeleteEntity("hashA", now.minusSeconds(1)),
+                new RemoteDeleteEntity("hashB", now.plusSeconds(60))));
+        entityManager.flush();
+
+        // Act
+        int first = remoteDeleteRepository.claim(List.of("hashA", "hashB"), now, now.plusSeconds(120), "first");
+        int second = remoteDeleteRepository.claim(List.of("hashA", "hashB"), now, now.plusSeconds(120), "second");
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(List.of("hashA"), remoteDeleteRepository.findDeleteHashesByClaimToken("first"));
+        assertTrue(remoteDeleteRepository.findDeleteHashesByClaimToken("second").isEmpty());
+    }
+
+    @Test
+    public void testLeases_OnlyLapsedClaimsAreRequeuedAndLostClaimsCannotSettle() {
+        // Arrange
+        Instant now = Instant.now();
+        String running = uploadJobRepository.saveAndFlush(job(now.minusSeconds(3600))).getId();
+        String lapsed = uploadJobRepository.saveAndFlush(job(now.minusSeconds(3600))).getId();
+        uploadJobRepository.claim(running, "runningToken", now.minusSeconds(3600), now.minusSeconds(1));
+        uploadJobRepository.claim(lapsed, "lapsedToken", now.minusSeconds(3600), now.minusSeconds(1));
+        uploadJobRepository.renewLeases(List.of("runningToken"), now.plusSeconds(120));
+
+        // Act
+        int requeued = uploadJobRepository.requeueLapsedClaims(now, now.minusSeconds(300));
+        int settledLost = uploadJobRepository.settle(lapsed, "lapsedToken", UploadJobStatus.COMPLETED, null, null, null, now);
+        int settledHeld = uploadJobRepository.settle(running, "runningToken", UploadJobStatus.COMPLETED, null, null, null, now);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, requeued);
+        assertEquals(0, settledLost);
+        assertEquals(1, settledHeld);
+        assertEquals(UploadJobStatus.PENDING, uploadJobRepository.findById(lapsed).orElseThrow().getStatus());
+        assertEquals(UploadJobStatus.COMPLETED, uploadJobRepository.findById(running).orElseThrow().getStatus());
+        assertNull(uploadJobRepository.findById(running).orElseThrow().getClaimToken());
+    }
+
+    private static UploadJobEntity job(Instant createdAt) {
+        UploadJobEntity job = new UploadJobEntity();
+        job.setUsername("testuser");
+        job.setStatus(UploadJobStatus.PENDING);
+        job.setCreatedAt(createdAt);
+        job.setUpdatedAt(createdAt);
+        return job;
+    }
+
+    private static UserEntity user(String username) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setPassword("password");
+        return user;
+    }
+
+    private static ImageEntity image(UserEntity user, int index) {
+        ImageEntity image = new ImageEntity();
+        image.setImageUrl("https://i.imgur.com/" + index + ".png");
+        image.setDeleteHash("hash" + index);
+        image.setUser(user);
+        return image;
+    }
+}
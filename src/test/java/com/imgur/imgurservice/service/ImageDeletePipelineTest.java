@@ -0,0 +1,176 @@
+package com.imgur.imgurservice.service;
+
+import com.imgur.imgurservice.client.ImgurClient;
+import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.entity.RemoteDeleteEntity;
+import com.imgur.imgurservice.exception.ImgurApiException;
+import com.imgur.imgurservice.repository.ImageRepository;
+import com.imgur.imgurservice.repository.RemoteDeleteRepository;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * JUnit test class for the ImageDeletePipeline.
+ */
+public class ImageDeletePipelineTest {
+
+    @Mock
+    private ImgurClient imgurClient;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private RemoteDeleteRepository remoteDeleteRepository;
+
+    private ImageDeletePipeline pipeline;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pipeline = new ImageDeletePipeline(imgurClient, imageRepository, remoteDeleteRepository,
+                new ResourceLimiter("database", 1, 1000), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Runnable::run, 100, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "dbBatchSize", 2);
+        ReflectionTestUtils.setField(pipeline, "flushBatchSize", 100);
+        ReflectionTestUtils.setField(pipeline, "retryDelayMs", 1000L);
+        ReflectionTestUtils.setField(pipeline, "maxAttempts", 3);
+        ReflectionTestUtils.setField(pipeline, "claimLeaseMs", 60000L);
+    }
+
+    @Test
+    public void testRemove_DeletesRowsInBatchesAndCoalescesImgurDeletes() {
+        // Arrange
+        List<ImageEntity> images = List.of(image("1", "hashA"), image("2", "hashA"), image("3", "hashB"));
+        when(imageRepository.findReferencedDeleteHashes(anyCollection())).thenReturn(List.of());
+        claimAll();
+        when(imgurClient.deleteAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        pipeline.remove(images);
+        pipeline.flush();
+
+        // Assert
+        verify(imageRepository).deleteAllByIdInBatch(List.of("1", "2"));
+        verify(imageRepository).deleteAllByIdInBatch(List.of("3"));
+        verify(remoteDeleteRepository).saveAll(argThat((List<RemoteDeleteEntity> entries) ->
+                entries.stream().map(RemoteDeleteEntity::getDeleteHash).toList().equals(List.of("hashA", "hashB"))));
+        verify(imgurClient, times(1)).deleteAsync("hashA");
+        verify(imgurClient, times(1)).deleteAsync("hashB");
+        verify(remoteDeleteRepository).deleteById("hashA");
+        verify(remoteDeleteRepository).deleteById("hashB");
+    }
+
+    @Test
+    public void testRemove_KeepsImagesStillSharedByOtherRows() {
+        // Arrange
+        when(imageRepository.findReferencedDeleteHashes(anyCollection())).thenReturn(List.of("hashA"), List.of());
+        claimAll();
+        when(imgurClient.deleteAsync("hashB")).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        pipeline.remove(List.of(image("1", "hashA"), image("2", "hashB")));
+        pipeline.flush();
+
+        // Assert
+        verify(imageRepository).findReferencedDeleteHashes(List.of("hashA", "hashB"));
+        verify(remoteDeleteRepository).saveAll(argThat((List<RemoteDeleteEntity> entries) ->
+                entries.size() == 1 && "hashB".equals(entries.get(0).getDeleteHash())));
+        verify(imgurClient, never()).deleteAsync("hashA");
+        verify(imgurClient, times(1)).deleteAsync("hashB");
+    }
+
+    @Test
+    public void testFlush_SkipsDeletesClaimedByAnotherPass() {
+        // Arrange
+        when(imageRepository.findReferencedDeleteHashes(anyCollection())).thenReturn(List.of());
+        when(remoteDeleteRepository.claim(anyCollection(), any(), any(), anyString())).thenReturn(0);
+
+        // Act
+        pipeline.remove(List.of(image("1", "hashA")));
+        pipeline.flush();
+
+        // Assert
+        verify(remoteDeleteRepository).saveAll(anyList());
+        verifyNoInteractions(imgurClient);
+    }
+
+    @Test
+    public void testFlush_RecordsFailedRemoteDeleteForRetry() {
+        // Arrange
+        RemoteDeleteEntity entry = new RemoteDeleteEntity("hashA", Instant.now());
+        entry.setClaimToken("token");
+        when(imageRepository.findReferencedDeleteHashes(anyCollection())).thenReturn(List.of());
+        claimAll();
+        when(imgurClient.deleteAsync("hashA"))
+                .thenReturn(CompletableFuture.failedFuture(new ImgurApiException("unavailable", 503)));
+        when(remoteDeleteRepository.findById("hashA")).thenReturn(Optional.of(entry));
+
+        // Act
+        pipeline.remove(List.of(image("1", "hashA")));
+        pipeline.flush();
+
+        // Assert
+        verify(remoteDeleteRepository).save(argThat((RemoteDeleteEntity failed) ->
+                "hashA".equals(failed.getDeleteHash()) && failed.getAttempts() == 1 && failed.getClaimToken() == null
+                        && failed.getNextAttemptAt() != null && "unavailable".equals(failed.getLastError())));
+        verify(remoteDeleteRepository, never()).deleteById(any());
+    }
+
+    @Test
+    public void testRetryFailed_ForgetsDeleteOnceImgurConfirms() {
+        // Arrange
+        RemoteDeleteEntity failed = new RemoteDeleteEntity();
+        failed.setDeleteHash("hashA");
+        failed.setAttempts(1);
+        when(remoteDeleteRepository.findByNextAttemptAtBeforeOrderByNextAttemptAt(any(), any())).thenReturn(List.of(failed));
+        when(imageRepository.findReferencedDeleteHashes(anyCollection())).thenReturn(List.of());
+        claimAll();
+        when(imgurClient.deleteAsync("hashA"))
+                .thenReturn(CompletableFuture.failedFuture(new ImgurApiException("not found", 404)));
+
+        // Act
+        pipeline.retryFailed();
+
+        // Assert
+        verify(remoteDeleteRepository).deleteById("hashA");
+        verify(remoteDeleteRepository, never()).save(any());
+    }
+
+    /**
+     * Lets every claim succeed, as when no other relay pass is running.
+     */
+    private void claimAll() {
+        List<String> claimed = new ArrayList<>();
+        when(remoteDeleteRepository.claim(anyCollection(), any(), any(), anyString())).thenAnswer(invocation -> {
+            claimed.clear();
+            claimed.addAll(invocation.getArgument(0));
+            return claimed.size();
+        });
+        when(remoteDeleteRepository.findDeleteHashesByClaimToken(anyString())).thenAnswer(invocation -> List.copyOf(claimed));
+    }
+
+    private static ImageEntity image(String id, String deleteHash) {
+        ImageEntity image = new ImageEntity();
+        image.setId(id);
+        image.setDeleteHash(deleteHash);
+        return image;
+    }
+}
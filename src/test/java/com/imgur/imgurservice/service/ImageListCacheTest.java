@@ -0,0 +1,279 @@
+package com.imgur.imgurservice.service;
+
+import com.imgur.imgurservice.exception.UsernameNotFoundException;
+import com.imgur.imgurservice.model.ImagePageResponse;
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.util.TwoTierCacheManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * JUnit test class for the ImageListCache.
+ */
+public class ImageListCacheTest {
+
+    private static final String VERSION_KEY = "imagesByUser:version:testuser";
+
+    private static final String INDEX_KEY = "imagesByUser:pages:testuser";
+
+    private static final String CHANGE_KEY = "imagesByUser:changes:testuser";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    private final Map<Object, Object> pageIndex = new HashMap<>();
+
+    private ImageListCache imageListCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<ImagePageResponse> loader = () -> {
+        loads.incrementAndGet();
+        return new ImagePageResponse(List.of(new ImageResponse("1", "https://i.imgur.com/1.png")), null);
+    };
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        doAnswer(invocation -> pageIndex.put(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(hashOperations).put(eq(INDEX_KEY), any(), any());
+        when(hashOperations.entries(INDEX_KEY)).thenAnswer(invocation -> new HashMap<>(pageIndex));
+        when(hashOperations.delete(eq(INDEX_KEY), any()))
+                .thenAnswer(invocation -> pageIndex.remove(invocation.getArgument(1)) != null ? 1L : 0L);
+        when(readYourWrites.read(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        imageListCache = new ImageListCache(new ConcurrentMapCacheManager(ImageListCache.CACHE_NAME), redisTemplate,
+                readYourWrites, 100, 60000);
+        configure(imageListCache);
+    }
+
+    private static void configure(ImageListCache imageListCache) {
+        ReflectionTestUtils.setField(imageListCache, "versionKeyPrefix", "imagesByUser:version:");
+        ReflectionTestUtils.setField(imageListCache, "pageIndexKeyPrefix", "imagesByUser:pages:");
+        ReflectionTestUtils.setField(imageListCache, "changeKeyPrefix", "imagesByUser:changes:");
+        ReflectionTestUtils.setField(imageListCache, "pageTtlMs", 60000L);
+    }
+
+    @Test
+    public void testGetPage_ServesRepeatedReadsFromCache() {
+        // Arrange
+        when(valueOperations.get(VERSION_KEY)).thenReturn(3);
+
+        // Act
+        ImagePageResponse first = imageListCache.getPage("testuser", null, null, 50, loader);
+        ImagePageResponse second = imageListCache.getPage("testuser", null, null, 50, loader);
+        imageListCache.getPage("testuser", "aW1hZ2Ux", "image1", 50, loader);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        verify(valueOperations, times(1)).get(VERSION_KEY);
+    }
+
+    @Test
+    public void testChanged_LaterReadsMissOldPages() {
+        // Arrange
+        when(valueOperations.get(VERSION_KEY)).thenReturn(3);
+        when(valueOperations.increment(VERSION_KEY)).thenReturn(4L);
+        imageListCache.getPage("testuser", null, null, 50, loader);
+
+        // Act
+        imageListCache.changed("testuser");
+        imageListCache.getPage("testuser", null, null, 50, loader);
+
+        // Assert
+        verify(valueOperations).increment(VERSION_KEY);
+        verify(readYourWrites).wrote(List.of("testuser"));
+        verify(readYourWrites, times(2)).read(eq("testuser"), any());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testChangedElsewhere_DropsLocalVersion() {
+        // Arrange
+        TwoTierCacheManager cacheManager = mock(TwoTierCacheManager.class);
+        when(cacheManager.getCache(ImageListCache.CACHE_NAME)).thenReturn(new ConcurrentMapCache(ImageListCache.CACHE_NAME));
+        imageListCache = new ImageListCache(cacheManager, redisTemplate, readYourWrites, 100, 60000);
+        configure(imageListCache);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheManager).addInvalidationListener(eq(ImageListCache.VERSIONS), listener.capture());
+        when(valueOperations.get(VERSION_KEY)).thenReturn(3, 4);
+        imageListCache.getPage("testuser", null, null, 50, loader);
+
+        // Act
+        listener.getValue().accept("testuser");
+        imageListCache.getPage("testuser", null, null, 50, loader);
+
+        // Assert
+        verify(valueOperations, times(2)).get(VERSION_KEY);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testChanged_AnnouncesVersionToOtherReplicas() {
+        // Arrange
+        TwoTierCacheManager cacheManager = mock(TwoTierCacheManager.class);
+        imageListCache = new ImageListCache(cacheManager, redisTemplate, readYourWrites, 100, 60000);
+        configure(imageListCache);
+        when(valueOperations.increment(VERSION_KEY)).thenReturn(4L);
+
+        // Act
+        imageListCache.changed("testuser");
+
+        // Assert
+        verify(cacheManager).invalidate(ImageListCache.VERSIONS, "testuser");
+    }
+
+    @Test
+    public void testGetPage_LoadsFromDatabaseWhenVersionUnavailable() {
+        // Arrange
+        when(valueOperations.get(VERSION_KEY)).thenThrow(new IllegalStateException("Redis down"));
+
+        // Act
+        imageListCache.getPage("testuser", null, null, 50, loader);
+        imageListCache.getPage("testuser", null, null, 50, loader);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGetPage_PropagatesLoaderException() {
+        // Arrange
+        when(valueOperations.get(VERSION_KEY)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> imageListCache.getPage("testuser", null, null, 50, () -> {
+            throw new UsernameNotFoundException("User not found");
+        }));
+    }
+
+    @Test
+    public void testRemoved_PatchesOnlyThePageCoveringTheImage() {
+        // Arrange
+        cachePages();
+
+        // Act
+        imageListCache.removed("testuser", List.of("3"));
+
+        // Assert
+        assertEquals(List.of(image("1"), image("2")), page(null, null).getImages());
+        assertEquals(List.of(image("4")), page("Mg", "2").getImages());
+        assertEquals(2, loads.get());
+        verify(readYourWrites).wrote(List.of("testuser"));
+        verify(valueOperations, never()).increment(VERSION_KEY);
+    }
+
+    @Test
+    public void testAdded_InsertsIntoLastPageWithRoom() {
+        // Arrange
+        cachePages();
+
+        // Act
+        imageListCache.added("testuser", List.of(image("5"), image("4")));
+
+        // Assert
+        assertEquals(List.of(image("3"), image("4"), image("5")), page("Mg", "2").getImages());
+        assertNull(page("Mg", "2").getNextCursor());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testAdded_EvictsInnerPageCoveringTheImageAndLeavesLaterPages() {
+        // Arrange
+        cachePages();
+
+        // Act
+        imageListCache.added("testuser", List.of(image("15")));
+
+        // Assert
+        page(null, null);
+        page("Mg", "2");
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testRemoved_EvictsPagesChangedConcurrently() {
+        // Arrange
+        cachePages();
+        when(valueOperations.increment(CHANGE_KEY)).thenReturn(3L);
+
+        // Act
+        imageListCache.removed("testuser", List.of("3"));
+
+        // Assert
+        page("Mg", "2");
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testRemoved_RetiresAllPagesWhenIndexUnavailable() {
+        // Arrange
+        cachePages();
+        when(hashOperations.entries(INDEX_KEY)).thenThrow(new IllegalStateException("Redis down"));
+        when(valueOperations.increment(VERSION_KEY)).thenReturn(4L);
+
+        // Act
+        imageListCache.removed("testuser", List.of("3"));
+
+        // Assert
+        verify(valueOperations).increment(VERSION_KEY);
+    }
+
+    /**
+     * Caches two pages of two: images 1 and 2, then 3 and 4 (the last page, with room for one more).
+     */
+    private void cachePages() {
+        when(valueOperations.get(VERSION_KEY)).thenReturn(3);
+        when(valueOperations.get(CHANGE_KEY)).thenReturn(0);
+        when(valueOperations.increment(CHANGE_KEY)).thenReturn(1L);
+        page(null, null);
+        page("Mg", "2");
+        assertEquals(2, loads.get());
+    }
+
+    private ImagePageResponse page(String cursor, String afterId) {
+        int limit = afterId == null ? 2 : 3;
+        return imageListCache.getPage("testuser", cursor, afterId, limit, () -> {
+            loads.incrementAndGet();
+            return afterId == null
+                    ? new ImagePageResponse(List.of(image("1"), image("2")), "Mg")
+                    : new ImagePageResponse(List.of(image("3"), image("4")), null);
+        });
+    }
+
+    private static ImageResponse image(String id) {
+        return new ImageResponse(id, "https://i.imgur.com/" + id + ".png");
+    }
+}
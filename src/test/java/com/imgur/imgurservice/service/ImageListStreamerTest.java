@@ -0,0 +1,82 @@
+package com.imgur.imgurservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.repository.ImageRepository;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * JUnit test class for the ImageListStreamer.
+ */
+public class ImageListStreamerTest {
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImageListStreamer streamer;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        streamer = new ImageListStreamer(imageRepository, new ObjectMapper(), new ResourceLimiter("database", 1, 1000),
+                transactionManager, new ReadYourWrites(null, ""));
+        ReflectionTestUtils.setField(streamer, "flushEvery", 1);
+    }
+
+    @Test
+    public void testWrite_WritesJsonArrayAndClosesCursor() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(imageRepository.streamByUserId("userId")).thenReturn(Stream.of(
+                new ImageResponse("1", "https://i.imgur.com/1.png"),
+                new ImageResponse("2", "https://i.imgur.com/2.png")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        streamer.write("testuser", "userId", out);
+
+        // Assert
+        assertEquals("[{\"imageId\":\"1\",\"imageUrl\":\"https://i.imgur.com/1.png\"},"
+                + "{\"imageId\":\"2\",\"imageUrl\":\"https://i.imgur.com/2.png\"}]", out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void testWrite_ClientGoneStopsReadingAndRollsBack() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(imageRepository.streamByUserId("userId")).thenReturn(Stream.generate(() ->
+                new ImageResponse("1", "https://i.imgur.com/1.png")).onClose(() -> closed.set(true)));
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> streamer.write("testuser", "userId", out));
+        assertTrue(closed.get());
+        verify(transactionManager).rollback(any());
+    }
+}
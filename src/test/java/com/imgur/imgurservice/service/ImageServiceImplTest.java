@@ -1,28 +1,58 @@
 package com.imgur.imgurservice.service;
 
+import com.imgur.imgurservice.client.ImgurClient;
+import com.imgur.imgurservice.client.ImgurRateLimiter;
 import com.imgur.imgurservice.entity.ImageEntity;
+import com.imgur.imgurservice.entity.UploadJobEntity;
+import com.imgur.imgurservice.entity.UploadJobStatus;
 import com.imgur.imgurservice.entity.UserEntity;
 import com.imgur.imgurservice.exception.AccessDeniedException;
 import com.imgur.imgurservice.exception.ImageNotFoundException;
+import com.imgur.imgurservice.exception.InvalidImageException;
+import com.imgur.imgurservice.exception.TooManyRequestsException;
+import com.imgur.imgurservice.exception.UploadJobNotFoundException;
 import com.imgur.imgurservice.exception.UsernameNotFoundException;
+import com.imgur.imgurservice.model.BatchUploadResponse;
+import com.imgur.imgurservice.model.BatchUploadStatus;
+import com.imgur.imgurservice.model.BulkDeleteResponse;
+import com.imgur.imgurservice.model.ImagePageResponse;
 import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.model.UploadJobResponse;
 import com.imgur.imgurservice.model.Imgurmodel.ImgurData;
 import com.imgur.imgurservice.model.Imgurmodel.ImgurResponse;
 import com.imgur.imgurservice.repository.ImageRepository;
+import com.imgur.imgurservice.repository.UploadJobRepository;
 import com.imgur.imgurservice.repository.UserRepository;
 import com.imgur.imgurservice.util.JwtTokenManager;
+import com.imgur.imgurservice.util.ResourceLimiter;
+import com.imgur.imgurservice.util.UploadSpool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.*;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,7 +65,10 @@ import static org.mockito.Mockito.*;
 public class ImageServiceImplTest {
 
     @Mock
-    private RestTemplate restTemplate;
+    private ImgurClient imgurClient;
+
+    @Mock
+    private ImgurRateLimiter imgurRateLimiter;
 
     @Mock
     private UserRepository userRepository;
@@ -43,24 +76,57 @@ public class ImageServiceImplTest {
     @Mock
     private ImageRepository imageRepository;
 
+    @Mock
+    private UploadJobRepository uploadJobRepository;
+
     @Mock
     private JwtTokenManager jwtTokenManager;
 
+    @Mock
+    private UploadSpool uploadSpool;
+
+    @Mock
+    private Executor taskExecutor;
+
+    @Mock
+    private ImageDeletePipeline imageDeletePipeline;
+
+    @Mock
+    private ImageListCache imageListCache;
+
+    @Mock
+    private ImageListStreamer imageListStreamer;
+
+    @TempDir
+    Path tempDir;
+
     private ImageServiceImpl imageService;
 
+    private MeterRegistry meterRegistry;
+
     // Set up @Value fields and inject dependencies
     @BeforeEach
     public void setUp() {
         // Initialize mocks
         MockitoAnnotations.openMocks(this);
 
+        meterRegistry = new SimpleMeterRegistry();
+
         // Manually create instance of ImageServiceImpl with all mocked dependencies
-        imageService = new ImageServiceImpl(restTemplate, userRepository, imageRepository, jwtTokenManager);
+        imageService = new ImageServiceImpl(imgurClient, imgurRateLimiter, userRepository, imageRepository, uploadJobRepository,
+                jwtTokenManager, uploadSpool, taskExecutor, Runnable::run, new ResourceLimiter("database", 1, 1000),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), imageDeletePipeline, imageListCache,
+                imageListStreamer, new UploadMetrics(meterRegistry));
 
         // Use ReflectionTestUtils to set private @Value fields
-        ReflectionTestUtils.setField(imageService, "uploadUrl", "http://mock-upload-url");
-        ReflectionTestUtils.setField(imageService, "deleteUrl", "http://mock-delete-url");
-        ReflectionTestUtils.setField(imageService, "clientId", "mock-client-id");
+        ReflectionTestUtils.setField(imageService, "retryAfterSeconds", 5L);
+        ReflectionTestUtils.setField(imageService, "batchMaxFiles", 20);
+        ReflectionTestUtils.setField(imageService, "batchConcurrency", 2);
+        ReflectionTestUtils.setField(imageService, "bulkDeleteMaxIds", 10);
+        ReflectionTestUtils.setField(imageService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(imageService, "maxPageSize", 5);
+        when(imageListCache.getPage(anyString(), any(), any(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ImagePageResponse>>getArgument(4).get());
     }
 
 //    @Test
@@ -111,6 +177,431 @@ public class ImageServiceImplTest {
         assertEquals("Invalid or empty file", exception.getMessage());
     }
 
+    @Test
+    public void testUploadAndSaveImage_CreditExhausted() {
+        // Arrange
+        MultipartFile mockFile = mock(MultipartFile.class);
+        when(mockFile.isEmpty()).thenReturn(false);
+        when(imgurRateLimiter.uploadRetryAfterMs()).thenReturn(90_500L);
+
+        // Act & Assert
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> imageService.uploadAndSaveImage(mockFile, "testuser"));
+        assertEquals(91L, exception.getRetryAfterSeconds());
+        verifyNoInteractions(uploadSpool, uploadJobRepository, taskExecutor);
+    }
+
+    @Test
+    public void testUploadAndSaveImage_QueuesJob() {
+        // Arrange
+        String username = "testuser";
+        MultipartFile mockFile = mock(MultipartFile.class);
+        when(mockFile.isEmpty()).thenReturn(false);
+        when(uploadSpool.spool(mockFile)).thenReturn(new UploadSpool.SpooledFile(tempDir.resolve("spooled.part"), "hash"));
+        when(uploadJobRepository.save(any(UploadJobEntity.class))).thenAnswer(invocation -> {
+            UploadJobEntity job = invocation.getArgument(0);
+            job.setId("jobId");
+            return job;
+        });
+
+        // Act
+        UploadJobResponse response = imageService.uploadAndSaveImage(mockFile, username);
+
+        // Assert
+        assertEquals("jobId", response.getJobId());
+        assertEquals(UploadJobStatus.PENDING, response.getStatus());
+        verify(taskExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testUploadAndSaveImage_QueueFull() {
+        // Arrange
+        String username = "testuser";
+        MultipartFile mockFile = mock(MultipartFile.class);
+        when(mockFile.isEmpty()).thenReturn(false);
+        Path spooled = tempDir.resolve("spooled.part");
+        when(uploadSpool.spool(mockFile)).thenReturn(new UploadSpool.SpooledFile(spooled, "hash"));
+        when(uploadJobRepository.save(any(UploadJobEntity.class))).thenAnswer(invocation -> {
+            UploadJobEntity job = invocation.getArgument(0);
+            job.setId("jobId");
+            return job;
+        });
+        doThrow(new RejectedExecutionException("full")).when(taskExecutor).execute(any(Runnable.class));
+
+        // Act & Assert
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> imageService.uploadAndSaveImage(mockFile, username));
+        assertEquals(5L, exception.getRetryAfterSeconds());
+        verify(uploadJobRepository, times(1)).deleteById("jobId");
+        verify(uploadSpool, times(1)).release(spooled);
+    }
+
+    @Test
+    public void testUploadAndSaveImageAsync_CompletesJob() throws Exception {
+        // Arrange
+        Path spooled = Files.write(tempDir.resolve("spooled.part"), "image".getBytes());
+        UploadJobEntity job = new UploadJobEntity();
+        job.setId("jobId");
+        job.setUsername("testuser");
+        job.setStatus(UploadJobStatus.PROCESSING);
+        job.setSpoolPath(spooled.toString());
+        job.setCreatedAt(Instant.now());
+
+        UserEntity userEntity = new UserEntity();
+        userEntity.setUsername("testuser");
+
+        ImgurData imgurData = new ImgurData();
+        imgurData.setLink("http://image-link.com");
+        imgurData.setDeletehash("deleteHash");
+        ImgurResponse imgurResponse = new ImgurResponse();
+        imgurResponse.setData(imgurData);
+
+        when(uploadJobRepository.claim(eq("jobId"), anyString(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.recordUpload(eq("jobId"), anyString(), any(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.settle(eq("jobId"), anyString(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.findById("jobId")).thenReturn(Optional.of(job));
+        when(imgurClient.uploadAsync(any(Resource.class))).thenReturn(CompletableFuture.completedFuture(imgurResponse));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(userEntity));
+        when(imageRepository.save(any(ImageEntity.class))).thenAnswer(invocation -> {
+            ImageEntity image = invocation.getArgument(0);
+            image.setId("imageId");
+            return image;
+        });
+
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        // Act
+        imageService.uploadAndSaveImageAsync("jobId").join();
+
+        // Assert
+        assertEquals(UploadJobStatus.COMPLETED, job.getStatus());
+        assertEquals("imageId", job.getImageId());
+        assertNull(job.getSpoolPath());
+        verify(uploadSpool, times(1)).release(spooled);
+        verify(uploadJobRepository, times(1)).settle(eq("jobId"), eq(job.getClaimToken()), eq(UploadJobStatus.COMPLETED),
+                eq("imageId"), eq("http://image-link.com"), isNull(), any());
+        for (String stage : List.of("imgur", "user_lookup", "db_save", "cache")) {
+            assertEquals(1, meterRegistry.get("imgur.upload.stage").tag("stage", stage).tag("outcome", "success")
+                    .timer().count(), stage);
+        }
+        assertEquals(1, meterRegistry.get("imgur.upload.job").tag("outcome", "completed").timer().count());
+    }
+
+    @Test
+    public void testUploadAndSaveImageAsync_ReusesStoredContent() {
+        // Arrange
+        Path spooled = tempDir.resolve("spooled.part");
+        UploadJobEntity job = new UploadJobEntity();
+        job.setId("jobId");
+        job.setUsername("testuser");
+        job.setStatus(UploadJobStatus.PROCESSING);
+        job.setSpoolPath(spooled.toString());
+        job.setContentHash("hash");
+
+        UserEntity owner = new UserEntity();
+        owner.setId("ownerId");
+        UserEntity userEntity = new UserEntity();
+        userEntity.setId("userId");
+        userEntity.setUsername("testuser");
+
+        ImageEntity existing = new ImageEntity();
+        existing.setId("existingId");
+        existing.setImageUrl("http://image-link.com");
+        existing.setDeleteHash("deleteHash");
+        existing.setContentHash("hash");
+        existing.setUser(owner);
+
+        when(uploadJobRepository.claim(eq("jobId"), anyString(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.recordUpload(eq("jobId"), anyString(), any(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.settle(eq("jobId"), anyString(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.findById("jobId")).thenReturn(Optional.of(job));
+        when(imageRepository.findFirstByContentHash("hash")).thenReturn(Optional.of(existing));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(userEntity));
+        when(imageRepository.findFirstByContentHashAndUserId("hash", "userId")).thenReturn(Optional.empty());
+        when(imageRepository.save(any(ImageEntity.class))).thenAnswer(invocation -> {
+            ImageEntity image = invocation.getArgument(0);
+            image.setId("sharedId");
+            return image;
+        });
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        // Act
+        imageService.uploadAndSaveImageAsync("jobId").join();
+
+        // Assert
+        assertEquals(UploadJobStatus.COMPLETED, job.getStatus());
+        assertEquals("sharedId", job.getImageId());
+        assertEquals("http://image-link.com", job.getImageUrl());
+        verify(imageRepository).save(argThat(image -> "deleteHash".equals(image.getDeleteHash()) && image.getUser() == userEntity));
+        verifyNoInteractions(imgurClient);
+        verify(uploadSpool, times(1)).release(spooled);
+    }
+
+    @Test
+    public void testUploadAndSaveImageAsync_UnsavedImageIsQueuedForDeletion() throws Exception {
+        // Arrange
+        Path spooled = Files.write(tempDir.resolve("spooled.part"), "image".getBytes());
+        UploadJobEntity job = new UploadJobEntity();
+        job.setId("jobId");
+        job.setUsername("testuser");
+        job.setStatus(UploadJobStatus.PROCESSING);
+        job.setSpoolPath(spooled.toString());
+
+        ImgurData imgurData = new ImgurData();
+        imgurData.setLink("http://image-link.com");
+        imgurData.setDeletehash("deleteHash");
+        ImgurResponse imgurResponse = new ImgurResponse();
+        imgurResponse.setData(imgurData);
+
+        when(uploadJobRepository.claim(eq("jobId"), anyString(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.recordUpload(eq("jobId"), anyString(), any(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.settle(eq("jobId"), anyString(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.findById("jobId")).thenReturn(Optional.of(job));
+        when(imgurClient.uploadAsync(any(Resource.class))).thenReturn(CompletableFuture.completedFuture(imgurResponse));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        // Act
+        imageService.uploadAndSaveImageAsync("jobId").join();
+
+        // Assert
+        verify(uploadJobRepository).recordUpload(eq("jobId"), anyString(), eq("http://image-link.com"), eq("deleteHash"), any());
+        verify(imageRepository, never()).save(any(ImageEntity.class));
+        verify(imageDeletePipeline, times(1)).discard(List.of("deleteHash"));
+        assertEquals(UploadJobStatus.FAILED, job.getStatus());
+        verify(uploadJobRepository, times(1)).settle(eq("jobId"), anyString(), eq(UploadJobStatus.FAILED), isNull(),
+                eq("http://image-link.com"), eq("User not found"), any());
+        verify(uploadSpool, times(1)).release(spooled);
+    }
+
+    @Test
+    public void testUploadAndSaveImageAsync_LostClaimDiscardsUploadAndKeepsSpool() throws Exception {
+        // Arrange
+        Path spooled = Files.write(tempDir.resolve("spooled.part"), "image".getBytes());
+        UploadJobEntity job = new UploadJobEntity();
+        job.setId("jobId");
+        job.setUsername("testuser");
+        job.setStatus(UploadJobStatus.PROCESSING);
+        job.setSpoolPath(spooled.toString());
+
+        ImgurData imgurData = new ImgurData();
+        imgurData.setLink("http://image-link.com");
+        imgurData.setDeletehash("deleteHash");
+        ImgurResponse imgurResponse = new ImgurResponse();
+        imgurResponse.setData(imgurData);
+
+        when(uploadJobRepository.claim(eq("jobId"), anyString(), any(), any())).thenReturn(1);
+        when(uploadJobRepository.findById("jobId")).thenReturn(Optional.of(job));
+        when(imgurClient.uploadAsync(any(Resource.class))).thenReturn(CompletableFuture.completedFuture(imgurResponse));
+        // The lease lapsed during the upload and the sweep requeued the job
+        when(uploadJobRepository.recordUpload(eq("jobId"), anyString(), any(), any(), any())).thenReturn(0);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(taskExecutor).execute(any(Runnable.class));
+
+        // Act
+        imageService.uploadAndSaveImageAsync("jobId").join();
+
+        // Assert
+        verify(imageDeletePipeline, times(1)).discard(List.of("deleteHash"));
+        verify(imageRepository, never()).save(any(ImageEntity.class));
+        verify(uploadJobRepository, never()).settle(any(), any(), any(), any(), any(), any(), any());
+        verify(uploadSpool, never()).release(any());
+    }
+
+    @Test
+    public void testRenewClaims_RenewsRunningJobs() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(imageService, "recoveryBatchSize", 10);
+        when(uploadJobRepository.claim(eq("jobId"), anyString(), any(), any())).thenReturn(1);
+        UploadJobEntity job = new UploadJobEntity();
+        job.setId("jobId");
+        job.setUsername("testuser");
+        job.setSpoolPath(Files.write(tempDir.resolve("spooled.part"), "image".getBytes()).toString());
+        when(uploadJobRepository.findById("jobId")).thenReturn(Optional.of(job));
+        when(imgurClient.uploadAsync(any(Resource.class))).thenReturn(new CompletableFuture<>());
+        imageService.uploadAndSaveImageAsync("jobId");
+
+        // Act
+        imageService.renewClaims();
+
+        // Assert
+        verify(uploadJobRepository).renewLeases(eq(List.of(job.getClaimToken())), any());
+    }
+
+    @Test
+    public void testSweepStaleJobs_FailsInterruptedUploadsInsteadOfRetryingThem() {
+        // Arrange
+        UploadJobEntity job = new UploadJobEntity();
+        job.setId("jobId");
+        job.setUsername("testuser");
+        job.setStatus(UploadJobStatus.PROCESSING);
+        job.setDeleteHash("deleteHash");
+        job.setClaimToken("lapsedToken");
+        ReflectionTestUtils.setField(imageService, "recoveryBatchSize", 10);
+        when(uploadJobRepository.findInterruptedUploads(any(), any(), any())).thenReturn(List.of(job));
+        when(uploadJobRepository.settle(eq("jobId"), eq("lapsedToken"), eq(UploadJobStatus.FAILED), any(), any(), any(), any()))
+                .thenReturn(1);
+
+        // Act
+        imageService.sweepStaleJobs();
+
+        // Assert
+        verify(imageDeletePipeline, times(1)).discard(List.of("deleteHash"));
+        assertEquals(UploadJobStatus.FAILED, job.getStatus());
+        verify(imgurClient, never()).uploadAsync(any(Resource.class));
+    }
+
+    @Test
+    public void testSweepOrphanedSpoolFiles_ReleasesFilesWithoutActiveJob() {
+        // Arrange
+        Path backing = tempDir.resolve("backing.part");
+        Path orphan = tempDir.resolve("orphan.part");
+        ReflectionTestUtils.setField(imageService, "recoveryBatchSize", 10);
+        when(uploadSpool.filesOlderThan(any())).thenReturn(List.of(backing, orphan));
+        when(uploadJobRepository.findSpoolPathsInUse(List.of(backing.toString(), orphan.toString())))
+                .thenReturn(List.of(backing.toString()));
+
+        // Act
+        imageService.sweepOrphanedSpoolFiles();
+
+        // Assert
+        verify(uploadSpool).release(orphan);
+        verify(uploadSpool, never()).release(backing);
+    }
+
+    @Test
+    public void testSweepOrphanedSpoolFiles_KeepsFilesWhenJobsCannotBeChecked() {
+        // Arrange
+        ReflectionTestUtils.setField(imageService, "recoveryBatchSize", 10);
+        when(uploadSpool.filesOlderThan(any())).thenReturn(List.of(tempDir.resolve("unknown.part")));
+        when(uploadJobRepository.findSpoolPathsInUse(any())).thenThrow(new IllegalStateException("Database unavailable"));
+
+        // Act
+        imageService.sweepOrphanedSpoolFiles();
+
+        // Assert
+        verify(uploadSpool, never()).release(any());
+    }
+
+    @Test
+    public void testUploadAndSaveImages_ReportsEachItem() throws Exception {
+        // Arrange
+        MultipartFile first = new MockMultipartFile("files", "a.jpg", "image/jpeg", "same".getBytes());
+        MultipartFile repeated = new MockMultipartFile("files", "b.jpg", "image/jpeg", "same".getBytes());
+        MultipartFile empty = new MockMultipartFile("files", "c.jpg", "image/jpeg", new byte[0]);
+        Path spooledFirst = Files.write(tempDir.resolve("a.part"), "same".getBytes());
+        Path spooledRepeated = Files.write(tempDir.resolve("b.part"), "same".getBytes());
+
+        UserEntity userEntity = new UserEntity();
+        userEntity.setId("userId");
+        userEntity.setUsername("testuser");
+
+        ImgurData imgurData = new ImgurData();
+        imgurData.setLink("http://image-link.com");
+        imgurData.setDeletehash("deleteHash");
+        ImgurResponse imgurResponse = new ImgurResponse();
+        imgurResponse.setData(imgurData);
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(userEntity));
+        when(uploadSpool.spool(first)).thenReturn(new UploadSpool.SpooledFile(spooledFirst, "hash"));
+        when(uploadSpool.spool(repeated)).thenReturn(new UploadSpool.SpooledFile(spooledRepeated, "hash"));
+        when(imageRepository.findAllByContentHashIn(Set.of("hash"))).thenReturn(List.of());
+        when(imgurClient.uploadAsync(any(Resource.class))).thenReturn(CompletableFuture.completedFuture(imgurResponse));
+        when(imageRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ImageEntity> images = invocation.getArgument(0);
+            images.forEach(image -> image.setId("imageId"));
+            return images;
+        });
+
+        // Act
+        BatchUploadResponse response = imageService.uploadAndSaveImages(List.of(first, repeated, empty), "testuser");
+
+        // Assert
+        assertEquals(1, response.getUploaded());
+        assertEquals(1, response.getDeduplicated());
+        assertEquals(1, response.getFailed());
+        assertEquals(BatchUploadStatus.UPLOADED, response.getItems().get(0).getStatus());
+        assertEquals("imageId", response.getItems().get(1).getImageId());
+        assertEquals("Invalid or empty file", response.getItems().get(2).getErrorMessage());
+        verify(imgurClient, times(1)).uploadAsync(any(Resource.class));
+        verify(imageRepository, times(1)).saveAll(argThat(images -> ((List<ImageEntity>) images).size() == 1));
+        verify(uploadSpool).release(spooledFirst);
+        verify(uploadSpool).release(spooledRepeated);
+    }
+
+    @Test
+    public void testUploadAndSaveImages_RepeatedContentStoredByAnotherUserIsSharedOnce() throws Exception {
+        // Arrange
+        MultipartFile first = new MockMultipartFile("files", "a.jpg", "image/jpeg", "same".getBytes());
+        MultipartFile repeated = new MockMultipartFile("files", "b.jpg", "image/jpeg", "same".getBytes());
+        Path spooledFirst = Files.write(tempDir.resolve("a.part"), "same".getBytes());
+        Path spooledRepeated = Files.write(tempDir.resolve("b.part"), "same".getBytes());
+
+        UserEntity owner = new UserEntity();
+        owner.setId("ownerId");
+        UserEntity userEntity = new UserEntity();
+        userEntity.setId("userId");
+        userEntity.setUsername("testuser");
+
+        ImageEntity existing = new ImageEntity();
+        existing.setId("existingId");
+        existing.setImageUrl("http://image-link.com");
+        existing.setDeleteHash("deleteHash");
+        existing.setContentHash("hash");
+        existing.setUser(owner);
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(userEntity));
+        when(uploadSpool.spool(first)).thenReturn(new UploadSpool.SpooledFile(spooledFirst, "hash"));
+        when(uploadSpool.spool(repeated)).thenReturn(new UploadSpool.SpooledFile(spooledRepeated, "hash"));
+        when(imageRepository.findAllByContentHashIn(Set.of("hash"))).thenReturn(List.of(existing));
+        when(imageRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ImageEntity> images = invocation.getArgument(0);
+            images.forEach(image -> image.setId("sharedId"));
+            return images;
+        });
+
+        // Act
+        BatchUploadResponse response = imageService.uploadAndSaveImages(List.of(first, repeated), "testuser");
+
+        // Assert
+        assertEquals(2, response.getDeduplicated());
+        assertEquals("sharedId", response.getItems().get(0).getImageId());
+        assertEquals("sharedId", response.getItems().get(1).getImageId());
+        verify(imageRepository, times(1)).saveAll(argThat(images -> ((List<ImageEntity>) images).size() == 1));
+        verifyNoInteractions(imgurClient);
+    }
+
+    @Test
+    public void testUploadAndSaveImages_TooManyFiles() {
+        // Arrange
+        ReflectionTestUtils.setField(imageService, "batchMaxFiles", 1);
+        List<MultipartFile> files = List.of(mock(MultipartFile.class), mock(MultipartFile.class));
+
+        // Act & Assert
+        assertThrows(InvalidImageException.class, () -> imageService.uploadAndSaveImages(files, "testuser"));
+        verifyNoInteractions(uploadSpool, imgurClient);
+    }
+
+    @Test
+    public void testGetUploadJob_NotFound() {
+        // Arrange
+        when(uploadJobRepository.findByIdAndUsername("jobId", "testuser")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(UploadJobNotFoundException.class, () -> imageService.getUploadJob("jobId", "testuser"));
+    }
+
 //    @Test
 //    public void testUploadAndSaveImage_UserNotFound() {
 //        // Arrange
@@ -153,15 +644,38 @@ public class ImageServiceImplTest {
 
         when(imageRepository.findById(imageId)).thenReturn(Optional.of(imageEntity));
 
-        // Mock RestTemplate DELETE call
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Void.class)))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-
         // Act
         imageService.deleteImage(imageId, username);
 
         // Assert
-        verify(imageRepository, times(1)).delete(imageEntity);
+        verify(imageDeletePipeline, times(1)).remove(List.of(imageEntity));
+    }
+
+    @Test
+    public void testDeleteImages_RemovesOwnedAndReportsTheRest() {
+        // Arrange
+        UserEntity user = new UserEntity();
+        user.setUsername("testuser");
+        UserEntity otherUser = new UserEntity();
+        otherUser.setUsername("otheruser");
+
+        ImageEntity owned = new ImageEntity();
+        owned.setId("owned");
+        owned.setUser(user);
+        ImageEntity foreign = new ImageEntity();
+        foreign.setId("foreign");
+        foreign.setUser(otherUser);
+
+        when(imageRepository.findAllByIdIn(List.of("owned", "foreign", "missing"))).thenReturn(List.of(owned, foreign));
+
+        // Act
+        BulkDeleteResponse response = imageService.deleteImages(List.of("owned", "foreign", "missing", "owned"), "testuser");
+
+        // Assert
+        assertEquals(1, response.getDeleted());
+        assertEquals(List.of("foreign", "missing"), response.getNotFound());
+        verify(imageDeletePipeline, times(1)).remove(List.of(owned));
+        verify(imageListCache, times(1)).removed("testuser", Set.of("owned"));
     }
 
 //    @Test
@@ -203,32 +717,63 @@ public class ImageServiceImplTest {
 //    }
 
     @Test
-    public void testGetImagesByUsername_Success() {
+    public void testGetImagesByUsername_ReturnsFirstPageWithCursor() {
         // Arrange
         String username = "testuser";
-        UserEntity userEntity = new UserEntity();
-        userEntity.setId("userId");
-        userEntity.setUsername(username);
+        when(imageRepository.findPageByUsername(username, Limit.of(3))).thenReturn(List.of(
+                new ImageResponse("imageId1", "http://image1-url.com"),
+                new ImageResponse("imageId2", "http://image2-url.com"),
+                new ImageResponse("imageId3", "http://image3-url.com")));
+
+        // Act
+        ImagePageResponse page = imageService.getImagesByUsername(username, null, null);
+
+        // Assert
+        assertEquals(2, page.getImages().size());
+        assertEquals("imageId1", page.getImages().get(0).getImageId());
+        assertEquals("http://image1-url.com", page.getImages().get(0).getImageUrl());
+        assertNotNull(page.getNextCursor());
+        verify(imageListCache).getPage(eq(username), isNull(), isNull(), eq(2), any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testGetImagesByUsername_SeeksPastCursorAndEndsOnLastPage() {
+        // Arrange
+        String username = "testuser";
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("imageId2".getBytes());
+        when(imageRepository.findPageByUsernameAfter(username, "imageId2", Limit.of(6)))
+                .thenReturn(List.of(new ImageResponse("imageId3", "http://image3-url.com")));
 
-        ImageEntity image1 = new ImageEntity();
-        image1.setId("imageId1");
-        image1.setImageUrl("http://image1-url.com");
+        // Act
+        ImagePageResponse page = imageService.getImagesByUsername(username, cursor, 100);
 
-        ImageEntity image2 = new ImageEntity();
-        image2.setId("imageId2");
-        image2.setImageUrl("http://image2-url.com");
+        // Assert
+        assertEquals(1, page.getImages().size());
+        assertEquals("imageId3", page.getImages().get(0).getImageId());
+        assertNull(page.getNextCursor());
+    }
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(userEntity));
-        when(imageRepository.findByUserId("userId")).thenReturn(Arrays.asList(image1, image2));
+    @Test
+    public void testGetImagesByUsername_EmptyPageOfExistingUser() {
+        // Arrange
+        when(imageRepository.findPageByUsername("testuser", Limit.of(3))).thenReturn(List.of());
+        when(userRepository.existsByUsername("testuser")).thenReturn(true);
 
         // Act
-        List<ImageResponse> images = imageService.getImagesByUsername(username);
+        ImagePageResponse page = imageService.getImagesByUsername("testuser", null, null);
 
         // Assert
-        assertNotNull(images);
-        assertEquals(2, images.size());
-        assertEquals("imageId1", images.get(0).getImageId());
-        assertEquals("http://image1-url.com", images.get(0).getImageUrl());
+        assertTrue(page.getImages().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testGetImagesByUsername_RejectsInvalidCursorAndPageSize() {
+        // Act & Assert
+        assertThrows(InvalidImageException.class, () -> imageService.getImagesByUsername("testuser", "not base64!", null));
+        assertThrows(InvalidImageException.class, () -> imageService.getImagesByUsername("testuser", null, 0));
+        verifyNoInteractions(imageRepository);
     }
 
     @Test
@@ -236,14 +781,41 @@ public class ImageServiceImplTest {
         // Arrange
         String username = "testuser";
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(imageRepository.findPageByUsername(username, Limit.of(3))).thenReturn(List.of());
+        when(userRepository.existsByUsername(username)).thenReturn(false);
 
         // Act & Assert
         UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class,
-                () -> imageService.getImagesByUsername(username));
+                () -> imageService.getImagesByUsername(username, null, null));
         assertEquals("User not found", exception.getMessage());
     }
 
+    @Test
+    public void testStreamImagesByUsername_WritesThroughStreamerForUser() throws Exception {
+        // Arrange
+        UserEntity userEntity = new UserEntity();
+        userEntity.setId("userId");
+        userEntity.setUsername("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(userEntity));
+        OutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        imageService.streamImagesByUsername("testuser").writeTo(out);
+
+        // Assert
+        verify(imageListStreamer).write("testuser", "userId", out);
+    }
+
+    @Test
+    public void testStreamImagesByUsername_UnknownUserFailsBeforeStreaming() {
+        // Arrange
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> imageService.streamImagesByUsername("testuser"));
+        verifyNoInteractions(imageListStreamer);
+    }
+
     @Test
     public void testGetImageById_Success() {
         // Arrange
@@ -3,6 +3,7 @@ package com.imgur.imgurservice.service;
 import com.imgur.imgurservice.entity.ImageEntity;
 import com.imgur.imgurservice.entity.UserEntity;
 import com.imgur.imgurservice.exception.AccessDeniedException;
+import com.imgur.imgurservice.exception.TooManyRequestsException;
 import com.imgur.imgurservice.exception.UserAlreadyExistsException;
 import com.imgur.imgurservice.exception.UsernameNotFoundException;
 import com.imgur.imgurservice.model.Authentication.JwtResponse;
@@ -11,6 +12,7 @@ import com.imgur.imgurservice.model.UserResponse;
 import com.imgur.imgurservice.repository.ImageRepository;
 import com.imgur.imgurservice.repository.UserRepository;
 import com.imgur.imgurservice.util.JwtTokenManager;
+import com.imgur.imgurservice.util.ResourceLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,11 +20,18 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -45,6 +54,12 @@ public class UserServiceImplTest {
     @Mock
     private JwtTokenManager jwtTokenManager;
 
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private ImageListCache imageListCache;
+
     private UserServiceImpl userService;
 
     @BeforeEach
@@ -53,7 +68,10 @@ public class UserServiceImplTest {
         MockitoAnnotations.openMocks(this);
 
         // Create instance of UserServiceImpl with mocked dependencies
-        userService = new UserServiceImpl(userRepository, imageRepository, passwordEncoder, jwtTokenManager);
+        userService = new UserServiceImpl(userRepository, imageRepository, passwordEncoder, jwtTokenManager,
+                loginThrottle, Runnable::run, imageListCache, new ReadYourWrites(null, ""),
+                new ResourceLimiter("database", 1, 1000));
+        ReflectionTestUtils.setField(userService, "loginTimeoutMs", 1000L);
     }
 
     @Test
@@ -189,7 +207,7 @@ public class UserServiceImplTest {
         when(jwtTokenManager.generateToken(username)).thenReturn("jwtToken");
 
         // Act
-        JwtResponse jwtResponse = userService.authorizeUser(username, password);
+        JwtResponse jwtResponse = userService.authorizeUser(username, password, "127.0.0.1");
 
         // Assert
         assertNotNull(jwtResponse);
@@ -212,11 +230,12 @@ public class UserServiceImplTest {
 
         // Act & Assert
         AccessDeniedException exception = assertThrows(AccessDeniedException.class, () -> {
-            userService.authorizeUser(username, password);
+            userService.authorizeUser(username, password, "127.0.0.1");
         });
 
         assertEquals("Invalid credentials", exception.getMessage());
         verify(jwtTokenManager, never()).generateToken(anyString());
+        verify(loginThrottle).recordFailure(username, "127.0.0.1");
     }
 
     @Test
@@ -229,13 +248,118 @@ public class UserServiceImplTest {
 
         // Act & Assert
         AccessDeniedException exception = assertThrows(AccessDeniedException.class, () -> {
-            userService.authorizeUser(username, password);
+            userService.authorizeUser(username, password, "127.0.0.1");
         });
 
         assertEquals("Invalid credentials", exception.getMessage());
         verify(jwtTokenManager, never()).generateToken(anyString());
     }
 
+    @Test
+    public void testAuthorizeUser_RehashesPasswordWithOutdatedCost() {
+        // Arrange
+        String username = "testuser";
+        String password = "password";
+
+        UserEntity userEntity = new UserEntity();
+        userEntity.setUsername(username);
+        userEntity.setPassword("weakHash");
+
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(userEntity));
+        when(passwordEncoder.matches(password, "weakHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("weakHash")).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("strongHash");
+        when(jwtTokenManager.generateToken(username)).thenReturn("jwtToken");
+
+        // Act
+        userService.authorizeUser(username, password, "127.0.0.1");
+
+        // Assert
+        assertEquals("strongHash", userEntity.getPassword());
+        verify(userRepository).save(userEntity);
+        verify(loginThrottle).recordSuccess(username);
+    }
+
+    @Test
+    public void testAuthorizeUser_ThrottledLoginSkipsPasswordCheck() {
+        // Arrange
+        doThrow(new TooManyRequestsException("Too many failed login attempts", 60))
+                .when(loginThrottle).check("testuser", "127.0.0.1");
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> userService.authorizeUser("testuser", "password", "127.0.0.1"));
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testAuthorizeUser_FullLoginQueueIsRejected() {
+        // Arrange
+        userService = new UserServiceImpl(userRepository, imageRepository, passwordEncoder, jwtTokenManager,
+                loginThrottle, command -> {
+                    throw new RejectedExecutionException("queue full");
+                }, imageListCache, new ReadYourWrites(null, ""),
+                new ResourceLimiter("database", 1, 1000));
+
+        // Act & Assert
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> userService.authorizeUser("testuser", "password", "127.0.0.1"));
+        assertEquals(1, exception.getRetryAfterSeconds());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testAuthorizeUser_TimedOutLoginIsSkippedOnceDequeued() {
+        // Arrange
+        List<Runnable> queued = new ArrayList<>();
+        userService = new UserServiceImpl(userRepository, imageRepository, passwordEncoder, jwtTokenManager,
+                loginThrottle, queued::add, imageListCache, new ReadYourWrites(null, ""),
+                new ResourceLimiter("database", 1, 1000));
+        ReflectionTestUtils.setField(userService, "loginTimeoutMs", 20L);
+
+        // Act
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> userService.authorizeUser("testuser", "password", "127.0.0.1"));
+        queued.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(1, exception.getRetryAfterSeconds());
+        assertEquals(1, queued.size());
+        verifyNoInteractions(userRepository);
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(loginThrottle, never()).recordFailure(anyString(), anyString());
+    }
+
+    @Test
+    public void testAuthorizeUser_TimedOutLoginStopsBeforeHashing() throws Exception {
+        // Arrange
+        CountDownLatch gaveUp = new CountDownLatch(1);
+        CompletableFuture<Void> worker = new CompletableFuture<>();
+        userService = new UserServiceImpl(userRepository, imageRepository, passwordEncoder, jwtTokenManager,
+                loginThrottle, command -> new Thread(() -> {
+                    command.run();
+                    worker.complete(null);
+                }).start(), imageListCache, new ReadYourWrites(null, ""),
+                new ResourceLimiter("database", 1, 1000));
+        ReflectionTestUtils.setField(userService, "loginTimeoutMs", 20L);
+        UserEntity userEntity = new UserEntity();
+        userEntity.setUsername("testuser");
+        userEntity.setPassword("encodedPassword");
+        when(userRepository.findByUsername("testuser")).thenAnswer(invocation -> {
+            gaveUp.await(5, TimeUnit.SECONDS);
+            return Optional.of(userEntity);
+        });
+
+        // Act
+        assertThrows(TooManyRequestsException.class, () -> userService.authorizeUser("testuser", "password", "127.0.0.1"));
+        gaveUp.countDown();
+        worker.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        verify(passwordEncoder, never()).matches("password", "encodedPassword");
+        verify(userRepository, never()).save(any());
+    }
+
     @Test
     public void testUpdateUserImages_Success() {
         // Arrange
@@ -261,6 +385,7 @@ public class UserServiceImplTest {
         verify(imageRepository, times(1)).saveAll(anyList());
         assertEquals(userEntity, image1.getUser());
         assertEquals(userEntity, image2.getUser());
+        verify(imageListCache, times(1)).changed(Set.of(username));
     }
 
     @Test
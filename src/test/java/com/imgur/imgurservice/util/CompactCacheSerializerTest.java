@@ -0,0 +1,76 @@
+package com.imgur.imgurservice.util;
+
+import com.imgur.imgurservice.model.ImagePageResponse;
+import com.imgur.imgurservice.model.ImageResponse;
+import com.imgur.imgurservice.model.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the CompactCacheSerializer.
+ */
+public class CompactCacheSerializerTest {
+
+    private final CompactCacheSerializer serializer = new CompactCacheSerializer(256);
+
+    @Test
+    public void testRoundTrip_UserAndSmallImageList() {
+        // Arrange
+        UserResponse user = new UserResponse("user-1", "testUser", null);
+        List<ImageResponse> images = List.of(new ImageResponse("image-1", "https://i.imgur.com/a.jpg"));
+
+        // Act & Assert
+        assertEquals(user, serializer.deserialize(serializer.serialize(user)));
+        assertEquals(images, serializer.deserialize(serializer.serialize(images)));
+        assertSame(NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+    }
+
+    @Test
+    public void testSerialize_CompressesLargeValuesAndBeatsJson() {
+        // Arrange
+        List<ImageResponse> images = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            images.add(new ImageResponse("image-" + i, "https://i.imgur.com/image" + i + ".jpg"));
+        }
+
+        // Act
+        byte[] bytes = serializer.serialize(images);
+
+        // Assert
+        assertEquals((byte) 0x83, bytes[0]);
+        assertEquals(images, serializer.deserialize(bytes));
+        assertTrue(bytes.length < new GenericJackson2JsonRedisSerializer().serialize(images).length / 4);
+    }
+
+    @Test
+    public void testRoundTrip_ImagePage() {
+        // Arrange
+        ImagePageResponse page = new ImagePageResponse(
+                List.of(new ImageResponse("image-1", "https://i.imgur.com/a.jpg")), "aW1hZ2UtMQ");
+        ImagePageResponse lastPage = new ImagePageResponse(List.of(), null);
+
+        // Act
+        byte[] bytes = serializer.serialize(page);
+
+        // Assert
+        assertEquals((byte) 0x04, bytes[0]);
+        assertEquals(page, serializer.deserialize(bytes));
+        assertEquals(lastPage, serializer.deserialize(serializer.serialize(lastPage)));
+    }
+
+    @Test
+    public void testDeserialize_ReadsEntriesWrittenAsJson() {
+        // Arrange
+        UserResponse user = new UserResponse("user-1", "testUser", "test@example.com");
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(user);
+
+        // Act & Assert
+        assertEquals(user, serializer.deserialize(json));
+    }
+}
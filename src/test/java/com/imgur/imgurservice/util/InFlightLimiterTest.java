@@ -0,0 +1,115 @@
+package com.imgur.imgurservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the InFlightLimiter.
+ */
+public class InFlightLimiterTest {
+
+    @Test
+    public void testSubmit_QueuesOverflowAndStartsItWhenASlotFrees() {
+        // Arrange
+        InFlightLimiter limiter = new InFlightLimiter("test", 1, 1);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> firstResult = limiter.submit(() -> first);
+        CompletableFuture<String> secondResult = limiter.submit(() -> second);
+
+        // Assert
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1, limiter.getQueued());
+
+        first.complete("one");
+        assertEquals("one", firstResult.join());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+
+        second.complete("two");
+        assertEquals("two", secondResult.join());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testSubmit_RejectsWhenQueueIsFull() {
+        // Arrange
+        InFlightLimiter limiter = new InFlightLimiter("test", 1, 0);
+        limiter.submit(CompletableFuture::new);
+
+        // Act
+        CompletableFuture<String> rejected = limiter.submit(() -> CompletableFuture.completedFuture("never"));
+
+        // Assert
+        assertTrue(rejected.isCompletedExceptionally());
+        assertInstanceOf(RejectedExecutionException.class,
+                assertThrows(Exception.class, rejected::join).getCause());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    public void testSubmit_ReleasesSlotWhenCallFails() {
+        // Arrange
+        InFlightLimiter limiter = new InFlightLimiter("test", 1, 0);
+
+        // Act
+        CompletableFuture<String> failed = limiter.submit(() -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        // Assert
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testSubmit_DrainsQueueOfFailingCallsWithoutRecursing() {
+        // Arrange
+        int queued = 20_000;
+        InFlightLimiter limiter = new InFlightLimiter("test", 1, queued);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        limiter.submit(() -> first);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < queued; i++) {
+            results.add(limiter.submit(() -> CompletableFuture.failedFuture(new IllegalStateException("breaker open"))));
+        }
+
+        // Act
+        first.complete("one");
+
+        // Assert
+        assertTrue(results.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    public void testSubmit_StartsQueuedCallsOnDispatcher() throws Exception {
+        // Arrange
+        ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "dispatcher"));
+        try {
+            InFlightLimiter limiter = new InFlightLimiter("test", 1, 1, dispatcher);
+            CompletableFuture<String> first = new CompletableFuture<>();
+            limiter.submit(() -> first);
+            CompletableFuture<String> second = limiter.submit(() ->
+                    CompletableFuture.completedFuture(Thread.currentThread().getName()));
+
+            // Act
+            first.complete("one");
+
+            // Assert
+            assertEquals("dispatcher", second.get(5, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.imgur.imgurservice.util;
+
+import com.imgur.imgurservice.exception.AccessDeniedException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the JwtTokenManager.
+ */
+public class JwtTokenManagerTest {
+
+    private static final String SECRET = "9a4f2c8d3b7e6f1a0c5d8e2b4f7a9c3e6d1b8f0a2c4e7d9b3f5a8c1e6d0b2f4a";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JwtTokenManager jwtTokenManager;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenManager = new JwtTokenManager(SECRET, 100, meterRegistry);
+    }
+
+    @Test
+    public void testVerifyToken_RepeatCallIsServedFromCache() {
+        // Arrange
+        String token = jwtTokenManager.generateToken("testUser");
+
+        // Act
+        Claims first = jwtTokenManager.verifyToken(token);
+        Claims second = jwtTokenManager.verifyToken(token);
+
+        // Assert
+        assertEquals("testUser", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwtVerifiedTokens").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testVerifyToken_RejectsTamperedToken() {
+        // Arrange
+        String token = jwtTokenManager.generateToken("testUser");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> jwtTokenManager.verifyToken(tampered));
+        assertThrows(AccessDeniedException.class, () -> jwtTokenManager.validateToken("not-a-token"));
+    }
+
+    @Test
+    public void testVerifyToken_RejectsExpiredToken() {
+        // Arrange
+        String expired = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> jwtTokenManager.extractUsername(expired));
+    }
+}
@@ -0,0 +1,93 @@
+package com.imgur.imgurservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the ReplicaRoutingDataSource, routing between two in-memory databases the way
+ * the replica configuration does.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(replica, primary));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Test
+    public void testReadOnlyTransaction_ReadsFromReplica() {
+        // Act & Assert
+        assertEquals("replica", readOnlyTransaction.execute(status -> whichDatabase()));
+    }
+
+    @Test
+    public void testReadWriteTransaction_UsesPrimary() {
+        // Act
+        readWriteTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("update marker set name = 'primary, updated'"));
+
+        // Assert
+        assertEquals("primary, updated", readWriteTransaction.execute(status -> whichDatabase()));
+        assertEquals("replica", readOnlyTransaction.execute(status -> whichDatabase()));
+    }
+
+    @Test
+    public void testOnPrimary_PinsReadOnlyTransactionToPrimary() {
+        // Act
+        String pinned = ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> whichDatabase()));
+
+        // Assert
+        assertEquals("primary", pinned);
+        assertFalse(ReplicaRoutingDataSource.isPinnedToPrimary());
+        assertEquals("replica", readOnlyTransaction.execute(status -> whichDatabase()));
+    }
+
+    @Test
+    public void testOnPrimary_NestedCallKeepsOuterPin() {
+        // Act
+        ReplicaRoutingDataSource.onPrimary(() -> {
+            ReplicaRoutingDataSource.onPrimary(() -> null);
+
+            // Assert
+            assertTrue(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return null;
+        });
+        assertFalse(ReplicaRoutingDataSource.isPinnedToPrimary());
+    }
+
+    private String whichDatabase() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table marker (name varchar(32))");
+        jdbcTemplate.update("insert into marker values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,55 @@
+package com.imgur.imgurservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the ResourceLimiter.
+ */
+public class ResourceLimiterTest {
+
+    @Test
+    public void testCall_NestedCallRunsUnderHeldPermit() {
+        // Arrange
+        ResourceLimiter limiter = new ResourceLimiter("database", 1, 100);
+
+        // Act
+        String result = limiter.call(() -> limiter.call(() -> "nested"));
+
+        // Assert
+        assertEquals("nested", result);
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    @Test
+    public void testCall_TimesOutWhileAnotherThreadHoldsPermit() throws Exception {
+        // Arrange
+        ResourceLimiter limiter = new ResourceLimiter("database", 1, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> limiter.run(() -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(held.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        try {
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> limiter.call(() -> "never"));
+            assertEquals("Timed out waiting for database capacity", exception.getMessage());
+        } finally {
+            release.countDown();
+        }
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+}
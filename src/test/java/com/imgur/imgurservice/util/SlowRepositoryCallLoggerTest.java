@@ -0,0 +1,66 @@
+package com.imgur.imgurservice.util;
+
+import com.imgur.imgurservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the SlowRepositoryCallLogger.
+ */
+public class SlowRepositoryCallLoggerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testAfterInvocation_CountsCallsOverThreshold() throws Exception {
+        // Arrange
+        SlowRepositoryCallLogger logger = new SlowRepositoryCallLogger(meterRegistry, 100);
+        Method method = UserRepository.class.getMethod("findByUsername", String.class);
+
+        // Act
+        logger.afterInvocation(invocation(method, 50));
+        logger.afterInvocation(invocation(method, 250));
+
+        // Assert
+        Counter slow = meterRegistry.find("db.repository.slow")
+                .tags("repository", "UserRepository", "method", "findByUsername").counter();
+        assertNotNull(slow);
+        assertEquals(1, slow.count());
+    }
+
+    @Test
+    public void testAfterInvocation_NegativeThresholdDisablesLog() throws Exception {
+        // Arrange
+        SlowRepositoryCallLogger logger = new SlowRepositoryCallLogger(meterRegistry, -1);
+        Method method = UserRepository.class.getMethod("findByUsername", String.class);
+
+        // Act
+        logger.afterInvocation(invocation(method, 5_000));
+
+        // Assert
+        assertNull(meterRegistry.find("db.repository.slow").counter());
+    }
+
+    private static RepositoryMethodInvocation invocation(Method method, long durationMs) {
+        RepositoryMethodInvocationResult result = new RepositoryMethodInvocationResult() {
+            @Override
+            public State getState() {
+                return State.SUCCESS;
+            }
+
+            @Override
+            public Throwable getError() {
+                return null;
+            }
+        };
+        return new RepositoryMethodInvocation(UserRepository.class, method, result, TimeUnit.MILLISECONDS.toNanos(durationMs));
+    }
+}
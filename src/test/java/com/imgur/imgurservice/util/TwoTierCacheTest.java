@@ -0,0 +1,186 @@
+package com.imgur.imgurservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the TwoTierCache.
+ */
+public class TwoTierCacheTest {
+
+    private ConcurrentMapCache shared;
+
+    private List<String> invalidations;
+
+    private TwoTierCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        shared = new ConcurrentMapCache("users");
+        invalidations = new ArrayList<>();
+        cache = new TwoTierCache(new TwoTierCacheManager.LocalSettings(10, Duration.ofMinutes(1)), shared,
+                invalidations::add, Runnable::run);
+    }
+
+    @Test
+    public void testGet_CopiesSharedHitIntoLocalTier() {
+        // Arrange
+        shared.put("testUser", "profile");
+
+        // Act
+        Object value = cache.get("testUser").get();
+        shared.evict("testUser");
+
+        // Assert
+        assertEquals("profile", value);
+        assertEquals("profile", cache.get("testUser").get());
+        assertTrue(invalidations.isEmpty());
+    }
+
+    @Test
+    public void testEvict_RemovesBothTiersAndAnnouncesKey() {
+        // Arrange
+        cache.put("testUser", "profile");
+
+        // Act
+        cache.evict("testUser");
+
+        // Assert
+        assertNull(cache.get("testUser"));
+        assertEquals(List.of("testUser", "testUser"), invalidations);
+    }
+
+    @Test
+    public void testEvictLocal_KeepsSharedCopy() {
+        // Arrange
+        cache.put("testUser", "stale");
+        shared.put("testUser", "fresh");
+
+        // Act
+        cache.evictLocal("testUser");
+
+        // Assert
+        assertEquals("fresh", cache.get("testUser").get());
+    }
+
+    @Test
+    public void testGetWithLoader_ConcurrentMissesShareOneLoad() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> cache.get("testUser", () -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            release.await();
+            return "images";
+        }));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> cache.get("testUser", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        Thread.sleep(50);
+        release.countDown();
+
+        // Assert
+        assertEquals("images", first.get(5, TimeUnit.SECONDS));
+        assertEquals("images", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals("images", shared.get("testUser").get());
+    }
+
+    @Test
+    public void testGetWithLoader_ConcurrentMissesShareFailure() throws Exception {
+        // Arrange
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("User not found");
+
+        // Act
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> cache.get("testUser", () -> {
+            loaderStarted.countDown();
+            release.await();
+            throw failure;
+        }));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> cache.get("testUser", () -> "other"));
+        Thread.sleep(50);
+        release.countDown();
+
+        // Assert
+        for (CompletableFuture<Object> caller : List.of(first, second)) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            Cache.ValueRetrievalException retrieval = assertInstanceOf(Cache.ValueRetrievalException.class, thrown.getCause());
+            assertSame(failure, retrieval.getCause());
+        }
+        assertNull(shared.get("testUser"));
+    }
+
+    @Test
+    public void testGetWithLoader_LoadOvertakenByEvictionIsNotCached() {
+        // Act
+        Object value = cache.get("testUser", () -> {
+            cache.evict("testUser");
+            return "loadedBeforeWrite";
+        });
+
+        // Assert
+        assertEquals("loadedBeforeWrite", value);
+        assertNull(shared.get("testUser"));
+        assertNull(cache.get("testUser"));
+    }
+
+    @Test
+    public void testGetWithLoader_FillDoesNotAnnounceKey() {
+        // Act
+        Object value = cache.get("testUser", () -> "profile");
+
+        // Assert
+        assertEquals("profile", value);
+        assertEquals("profile", shared.get("testUser").get());
+        assertTrue(invalidations.isEmpty());
+    }
+
+    @Test
+    public void testPutIfAbsent_FillDoesNotAnnounceKey() {
+        // Arrange
+        shared.put("otherUser", "existing");
+
+        // Act
+        Cache.ValueWrapper filled = cache.putIfAbsent("testUser", "profile");
+        Cache.ValueWrapper kept = cache.putIfAbsent("otherUser", "ignored");
+        shared.clear();
+
+        // Assert
+        assertNull(filled);
+        assertEquals("existing", kept.get());
+        assertEquals("profile", cache.get("testUser").get());
+        assertEquals("existing", cache.get("otherUser").get());
+        assertTrue(invalidations.isEmpty());
+    }
+
+    @Test
+    public void testPut_AnnouncesKey() {
+        // Act
+        cache.put("testUser", "profile");
+
+        // Assert
+        assertEquals(List.of("testUser"), invalidations);
+    }
+}
@@ -0,0 +1,112 @@
+package com.imgur.imgurservice.util;
+
+import com.imgur.imgurservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the UploadSpool.
+ */
+public class UploadSpoolTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UploadSpool uploadSpool;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        uploadSpool = new UploadSpool(spoolDir.toString(), 10, 2, 7, meterRegistry);
+        uploadSpool.init();
+    }
+
+    @Test
+    public void testSpool_CopiesFileAndTracksOccupancy() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "a.jpg", "image/jpeg", "12345".getBytes());
+
+        // Act
+        UploadSpool.SpooledFile spooled = uploadSpool.spool(file);
+
+        // Assert
+        assertArrayEquals("12345".getBytes(), Files.readAllBytes(spooled.path()));
+        assertEquals("5994471abb01112afcc18159f6cc74b4f511b99806da59b3caf5a9c173cacfc5", spooled.contentHash());
+        assertEquals(5.0, meterRegistry.get("imgur.upload.spool.bytes").gauge().value());
+        assertEquals(1.0, meterRegistry.get("imgur.upload.spool.files").gauge().value());
+    }
+
+    @Test
+    public void testSpool_ReusedCopyBufferStartsClean() throws Exception {
+        // Arrange
+        uploadSpool.spool(new MockMultipartFile("file", "a.jpg", "image/jpeg", "12345".getBytes()));
+
+        // Act
+        UploadSpool.SpooledFile spooled = uploadSpool.spool(new MockMultipartFile("file", "b.jpg", "image/jpeg", "abc".getBytes()));
+
+        // Assert
+        assertArrayEquals("abc".getBytes(), Files.readAllBytes(spooled.path()));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", spooled.contentHash());
+    }
+
+    @Test
+    public void testSpool_RejectsWhenQuotaExceeded() {
+        // Arrange
+        uploadSpool.spool(new MockMultipartFile("file", "a.jpg", "image/jpeg", "12345678".getBytes()));
+
+        // Act & Assert
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> uploadSpool.spool(new MockMultipartFile("file", "b.jpg", "image/jpeg", "123".getBytes())));
+        assertEquals(7, exception.getRetryAfterSeconds());
+        assertEquals(8.0, meterRegistry.get("imgur.upload.spool.bytes").gauge().value());
+    }
+
+    @Test
+    public void testRelease_DeletesFileAndFreesQuota() {
+        // Arrange
+        Path spooled = uploadSpool.spool(new MockMultipartFile("file", "a.jpg", "image/jpeg", "12345".getBytes())).path();
+
+        // Act
+        uploadSpool.release(spooled);
+        uploadSpool.release(spooled);
+
+        // Assert
+        assertFalse(Files.exists(spooled));
+        assertEquals(0.0, meterRegistry.get("imgur.upload.spool.bytes").gauge().value());
+        assertEquals(0.0, meterRegistry.get("imgur.upload.spool.files").gauge().value());
+    }
+
+    @Test
+    public void testFilesOlderThan_ListsLeftoversAndReleaseFreesTheirQuota() throws Exception {
+        // Arrange
+        Path leftover = Files.write(spoolDir.resolve("leftover.part"), "123".getBytes());
+        Files.setLastModifiedTime(leftover, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        uploadSpool = new UploadSpool(spoolDir.toString(), 10, 2, 7, new SimpleMeterRegistry());
+        uploadSpool.init();
+        Path fresh = uploadSpool.spool(new MockMultipartFile("file", "a.jpg", "image/jpeg", "12345".getBytes())).path();
+
+        // Act
+        List<Path> candidates = uploadSpool.filesOlderThan(Instant.now().minus(Duration.ofHours(1)));
+        uploadSpool.release(leftover);
+
+        // Assert
+        assertEquals(List.of(leftover), candidates);
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(fresh));
+        assertDoesNotThrow(() -> uploadSpool.spool(new MockMultipartFile("file", "b.jpg", "image/jpeg", "12345".getBytes())));
+    }
+}